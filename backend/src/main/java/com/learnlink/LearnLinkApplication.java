@@ -3,8 +3,10 @@ package com.learnlink;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class LearnLinkApplication {
     public static void main(String[] args) {
         SpringApplication.run(LearnLinkApplication.class, args);
@@ -1,5 +1,6 @@
 package com.learnlink.config;
 
+import com.learnlink.service.PostCounterReconciliationService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
@@ -7,8 +8,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Configuration to fix database constraints at application startup
  */
@@ -17,6 +22,32 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class DatabaseFixesConfig {
 
+    // Foreign keys that must cascade so deleting a post is a single DELETE of the post row
+    private static final List<CascadeForeignKey> POST_DELETION_CASCADES = List.of(
+            new CascadeForeignKey("user_activities", "post_id", "posts", "FK_POST_USER_ACTIVITY"),
+            new CascadeForeignKey("comments", "post_id", "posts", "FK_POST_COMMENT"),
+            new CascadeForeignKey("comments", "parent_id", "comments", "FK_COMMENT_PARENT"),
+            new CascadeForeignKey("likes", "post_id", "posts", "FK_POST_LIKE"),
+            new CascadeForeignKey("media", "post_id", "posts", "FK_POST_MEDIA"),
+            new CascadeForeignKey("user_activities", "comment_id", "comments", "FK_COMMENT_USER_ACTIVITY"));
+
+    // Same top-down computation as V16, limited to threads that contain comments without a path
+    private static final String BACKFILL_COMMENT_PATHS =
+            "UPDATE comments c JOIN (" +
+            "  WITH RECURSIVE thread (id, path, depth) AS (" +
+            "    SELECT id, CAST(CONCAT(LPAD(id, 10, '0'), '/') AS CHAR(760) CHARACTER SET ascii), 0" +
+            "    FROM comments WHERE parent_id IS NULL" +
+            "    UNION ALL" +
+            "    SELECT child.id, CONCAT(thread.path, LPAD(child.id, 10, '0'), '/'), thread.depth + 1" +
+            "    FROM comments child JOIN thread ON child.parent_id = thread.id" +
+            "  ) SELECT id, path, depth FROM thread" +
+            ") computed ON computed.id = c.id " +
+            "SET c.path = computed.path, c.depth = computed.depth " +
+            "WHERE c.path IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PostCounterReconciliationService postCounterReconciliationService;
+
     @PersistenceContext
     private EntityManager entityManager;
     
@@ -29,6 +60,11 @@ public class DatabaseFixesConfig {
             log.info("Applying database constraint fixes...");
             try {
                 applyFixForUserActivitiesConstraint();
+                POST_DELETION_CASCADES.forEach(this::ensureCascade);
+                backfillCommentPaths();
+                backfillNotificationUpdatedAt();
+                // V8 is not run automatically: Hibernate adds the counter columns as 0 for existing posts
+                postCounterReconciliationService.reconcileCounters();
                 log.info("Database constraint fixes applied successfully");
             } catch (Exception e) {
                 log.error("Error applying database fixes: {}", e.getMessage(), e);
@@ -74,4 +110,68 @@ public class DatabaseFixesConfig {
             log.error("Error adding CASCADE constraint: {}", e.getMessage());
         }
     }
+
+    /**
+     * Comments created before materialized paths existed get theirs computed once;
+     * Hibernate adds the columns but leaves them empty.
+     */
+    private void backfillCommentPaths() {
+        Integer missing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM comments WHERE path IS NULL", Integer.class);
+        if (missing != null && missing > 0) {
+            int updated = jdbcTemplate.update(BACKFILL_COMMENT_PATHS);
+            log.info("Backfilled materialized paths of {} comments", updated);
+        }
+    }
+
+    /**
+     * Notifications stored before updated_at existed take their creation time as their latest activity
+     */
+    private void backfillNotificationUpdatedAt() {
+        int updated = jdbcTemplate.update("UPDATE notifications SET updated_at = created_at WHERE updated_at IS NULL");
+        if (updated > 0) {
+            log.info("Backfilled updated_at of {} notifications", updated);
+        }
+    }
+
+    /**
+     * Replace any non-cascading foreign key on the column with a named ON DELETE CASCADE one.
+     * Tables created by Hibernate before the cascade was mapped keep their generated constraints otherwise.
+     */
+    private void ensureCascade(CascadeForeignKey fk) {
+        try {
+            List<Map<String, Object>> existing = jdbcTemplate.queryForList(
+                    "SELECT k.CONSTRAINT_NAME AS name, r.DELETE_RULE AS delete_rule " +
+                    "FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE k " +
+                    "JOIN INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS r " +
+                    "ON r.CONSTRAINT_SCHEMA = k.CONSTRAINT_SCHEMA AND r.CONSTRAINT_NAME = k.CONSTRAINT_NAME " +
+                    "WHERE k.TABLE_SCHEMA = DATABASE() AND k.TABLE_NAME = ? AND k.COLUMN_NAME = ? " +
+                    "AND k.REFERENCED_TABLE_NAME = ?",
+                    fk.table(), fk.column(), fk.referencedTable());
+
+            boolean cascading = false;
+            for (Map<String, Object> constraint : existing) {
+                String name = (String) constraint.get("name");
+                if ("CASCADE".equals(constraint.get("delete_rule"))) {
+                    cascading = true;
+                } else {
+                    jdbcTemplate.execute("ALTER TABLE " + fk.table() + " DROP FOREIGN KEY `" + name + "`");
+                    log.info("Dropped non-cascading constraint {} on {}.{}", name, fk.table(), fk.column());
+                }
+            }
+
+            if (!cascading) {
+                jdbcTemplate.execute(
+                        "ALTER TABLE " + fk.table() + " ADD CONSTRAINT " + fk.name() + " " +
+                        "FOREIGN KEY (" + fk.column() + ") REFERENCES " + fk.referencedTable() + "(id) " +
+                        "ON DELETE CASCADE");
+                log.info("Added CASCADE constraint {} on {}.{}", fk.name(), fk.table(), fk.column());
+            }
+        } catch (Exception e) {
+            log.error("Error ensuring CASCADE constraint {}: {}", fk.name(), e.getMessage());
+        }
+    }
+
+    private record CascadeForeignKey(String table, String column, String referencedTable, String name) {
+    }
 }
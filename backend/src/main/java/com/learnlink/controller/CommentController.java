@@ -3,22 +3,31 @@ package com.learnlink.controller;
 import com.learnlink.dto.request.CommentRequest;
 import com.learnlink.dto.response.ApiResponse;
 import com.learnlink.dto.response.CommentResponse;
+import com.learnlink.dto.response.CursorPageResponse;
+import com.learnlink.model.Comment;
 import com.learnlink.model.User;
 import com.learnlink.service.CommentService;
+import com.learnlink.service.CommentStreamService;
+import com.learnlink.service.SseHub;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequiredArgsConstructor
 public class CommentController {
     
     private final CommentService commentService;
+    private final CommentStreamService commentStreamService;
     
     @PostMapping("/api/posts/{postId}/comments")
     public ResponseEntity<CommentResponse> createComment(
@@ -39,6 +48,43 @@ public class CommentController {
         return ResponseEntity.ok(comments);
     }
     
+    // A comment's whole reply tree in display order, paged; each item carries its depth and parent for nesting
+    @GetMapping("/api/comments/{commentId}/thread")
+    public ResponseEntity<CursorPageResponse<CommentResponse>> getThread(
+            @PathVariable Long commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "" + Comment.MAX_DEPTH) int maxDepth) {
+        
+        return ResponseEntity.ok(CursorPageResponse.of(
+                commentService.getThread(commentId, cursor, size, maxDepth),
+                comment -> String.valueOf(comment.getId())));
+    }
+    
+    // Live comment changes on a post as server-sent events: comment-created, comment-updated, comment-deleted
+    @GetMapping(value = "/api/posts/{postId}/comments/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamComments(@PathVariable Long postId) {
+        SseEmitter emitter = commentStreamService.subscribe(postId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(SseHub.RETRY_AFTER_SECONDS))
+                    .build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+    
+    // Direct replies of a comment, oldest first; the first page comes with the comment itself
+    @GetMapping("/api/comments/{commentId}/replies")
+    public ResponseEntity<CursorPageResponse<CommentResponse>> getReplies(
+            @PathVariable Long commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        return ResponseEntity.ok(CursorPageResponse.of(
+                commentService.getReplies(commentId, cursor, size),
+                CommentService::replyCursor));
+    }
+    
     @GetMapping("/api/comments/{commentId}")
     public ResponseEntity<CommentResponse> getComment(@PathVariable Long commentId) {
         CommentResponse commentResponse = commentService.getComment(commentId);
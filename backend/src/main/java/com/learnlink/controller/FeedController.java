@@ -0,0 +1,31 @@
+package com.learnlink.controller;
+
+import com.learnlink.dto.response.CursorPageResponse;
+import com.learnlink.dto.response.PostResponse;
+import com.learnlink.model.User;
+import com.learnlink.service.TimelineService;
+import com.learnlink.util.FeedCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/feed")
+@RequiredArgsConstructor
+public class FeedController {
+    
+    private final TimelineService timelineService;
+    
+    // Posts from the people the current user follows, plus their own posts
+    @GetMapping("/home")
+    public ResponseEntity<CursorPageResponse<PostResponse>> getHomeFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal User currentUser) {
+        
+        return ResponseEntity.ok(CursorPageResponse.of(
+                timelineService.getHomeTimeline(currentUser.getId(), cursor, size),
+                post -> FeedCursor.encode(post.getCreatedAt(), post.getId())));
+    }
+}
@@ -10,16 +10,19 @@ import com.learnlink.model.Topic;
 import com.learnlink.model.User;
 import com.learnlink.service.FileStorageService;
 import com.learnlink.service.LearningPlanService;
+import com.learnlink.util.ResourceVersion;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.web.multipart.MultipartFile;
 import org.slf4j.Logger;
@@ -57,10 +60,17 @@ public class LearningPlanController {
     @GetMapping("/{planId}")
     public ResponseEntity<LearningPlanResponse> getLearningPlanById(
             @PathVariable Long planId,
-            @AuthenticationPrincipal User currentUser) {
+            @AuthenticationPrincipal User currentUser,
+            WebRequest webRequest) {
+        
+        // Answer 304 from the version query alone when the client's copy is current
+        ResourceVersion version = learningPlanService.getLearningPlanVersion(planId, currentUser);
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
         
         LearningPlanResponse response = learningPlanService.getLearningPlanById(planId, currentUser.getEmail());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(response);
     }
     
     @GetMapping("/user/{userId}")
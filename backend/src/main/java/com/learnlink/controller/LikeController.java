@@ -1,16 +1,25 @@
 package com.learnlink.controller;
 
 import com.learnlink.dto.response.ApiResponse;
-import com.learnlink.model.Like;
+import com.learnlink.dto.response.CursorPageResponse;
+import com.learnlink.dto.response.LikerResponse;
 import com.learnlink.model.User;
 import com.learnlink.service.LikeService;
+import com.learnlink.util.FeedCursor;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -25,26 +34,69 @@ public class LikeController {
             @PathVariable Long postId,
             @AuthenticationPrincipal User currentUser) {
         
-        boolean isLiked = likeService.toggleLike(postId, currentUser.getEmail());
-        long likesCount = likeService.countLikes(postId);
+        LikeService.LikeState state = likeService.toggleLike(postId, currentUser);
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("liked", isLiked);
-        response.put("likesCount", likesCount);
-        response.put("message", isLiked ? "Post liked successfully" : "Post unliked successfully");
+        Map<String, Object> response = likeState(state);
+        response.put("message", state.liked() ? "Post liked successfully" : "Post unliked successfully");
         
         return ResponseEntity.ok(response);
     }
     
+    @PutMapping("/{postId}/like")
+    public ResponseEntity<Map<String, Object>> like(
+            @PathVariable Long postId,
+            @AuthenticationPrincipal User currentUser) {
+        
+        return ResponseEntity.ok(likeState(likeService.like(postId, currentUser)));
+    }
+    
+    @DeleteMapping("/{postId}/like")
+    public ResponseEntity<Map<String, Object>> unlike(
+            @PathVariable Long postId,
+            @AuthenticationPrincipal User currentUser) {
+        
+        return ResponseEntity.ok(likeState(likeService.unlike(postId, currentUser)));
+    }
+    
+    private Map<String, Object> likeState(LikeService.LikeState state) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("liked", state.liked());
+        response.put("likesCount", state.likesCount());
+        return response;
+    }
+    
     @GetMapping("/{postId}/likes/count")
     public ResponseEntity<Long> countLikes(@PathVariable Long postId) {
         return ResponseEntity.ok(likeService.countLikes(postId));
     }
     
+    // Who liked a post, most recent first, one keyset page at a time
     @GetMapping("/{postId}/likes")
-    public ResponseEntity<List<Like>> getLikes(@PathVariable Long postId) {
-        return ResponseEntity.ok(likeService.getLikes(postId));
+    public ResponseEntity<CursorPageResponse<LikerResponse>> getLikers(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        return ResponseEntity.ok(CursorPageResponse.of(
+                likeService.getLikers(postId, cursor, size),
+                liker -> FeedCursor.encode(liker.getLikedAt(), liker.getLikeId())));
+    }
+    
+    // Ids of all users who liked a post, one per line, streamed for export
+    @GetMapping(value = "/{postId}/likes/user-ids", produces = MediaType.TEXT_PLAIN_VALUE)
+    public void exportLikerIds(@PathVariable Long postId, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        Writer out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        likeService.exportLikerIds(postId, userId -> {
+            try {
+                out.write(Long.toString(userId));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
     }
     
     @GetMapping("/{postId}/likes/me")
@@ -4,13 +4,19 @@ import com.learnlink.dto.response.ApiResponse;
 import com.learnlink.dto.response.NotificationResponse;
 import com.learnlink.model.User;
 import com.learnlink.service.NotificationService;
+import com.learnlink.service.NotificationStreamService;
+import com.learnlink.service.SseHub;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -18,6 +24,7 @@ import org.springframework.web.bind.annotation.*;
 public class NotificationController {
     
     private final NotificationService notificationService;
+    private final NotificationStreamService notificationStreamService;
     
     @GetMapping
     public ResponseEntity<Page<NotificationResponse>> getNotifications(
@@ -36,15 +43,32 @@ public class NotificationController {
             @AuthenticationPrincipal User currentUser) {
         
         NotificationResponse notification = notificationService.markNotificationAsRead(notificationId, currentUser.getEmail());
+        notificationStreamService.publishUnreadCount(currentUser.getId());
         return ResponseEntity.ok(notification);
     }
     
     @PatchMapping("/read-all")
     public ResponseEntity<ApiResponse> markAllNotificationsAsRead(@AuthenticationPrincipal User currentUser) {
         notificationService.markAllNotificationsAsRead(currentUser.getEmail());
+        notificationStreamService.publishUnreadCount(currentUser.getId());
         return ResponseEntity.ok(new ApiResponse(true, "All notifications marked as read"));
     }
     
+    // New notifications and unread counts pushed as server-sent events; reconnects resume from Last-Event-ID
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @AuthenticationPrincipal User currentUser) {
+        
+        SseEmitter emitter = notificationStreamService.subscribe(currentUser.getId(), lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(SseHub.RETRY_AFTER_SECONDS))
+                    .build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+    
     @GetMapping("/unread/count")
     public ResponseEntity<Long> countUnreadNotifications(@AuthenticationPrincipal User currentUser) {
         return ResponseEntity.ok(notificationService.countUnreadNotifications(currentUser.getEmail()));
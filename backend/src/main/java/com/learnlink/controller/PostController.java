@@ -2,23 +2,36 @@ package com.learnlink.controller;
 
 import com.learnlink.dto.request.PostRequest;
 import com.learnlink.dto.response.ApiResponse;
+import com.learnlink.dto.response.CursorPageResponse;
 import com.learnlink.dto.response.PostResponse;
 import com.learnlink.exception.ResourceNotFoundException;
 import com.learnlink.model.Post;
 import com.learnlink.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnlink.service.PostImportService;
 import com.learnlink.service.PostService;
+import com.learnlink.service.TrendingService;
+import com.learnlink.util.FeedCursor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -26,7 +39,13 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PostController {
 
+    // Responses carry per-user state: never store them in shared caches, always revalidate
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final PostService postService;
+    private final TrendingService trendingService;
+    private final PostImportService postImportService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping(consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
     public ResponseEntity<PostResponse> createPost(
@@ -38,25 +57,56 @@ public class PostController {
         return ResponseEntity.ok(postResponse);
     }
 
+    // Bulk import from NDJSON, one post per line; progress is streamed back as NDJSON, one line per chunk
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importPosts(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            @AuthenticationPrincipal User currentUser) throws IOException {
+        
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        postImportService.importPosts(request.getInputStream(), currentUser.getId(), progress -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(progress));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     //get post by id
     @GetMapping("/{postId}")
     public ResponseEntity<PostResponse> getPostById(
             @PathVariable Long postId, 
-            @AuthenticationPrincipal User currentUser) {
+            @AuthenticationPrincipal User currentUser,
+            WebRequest webRequest) {
+        // Answer 304 from the version row alone when the client's copy is current
+        if (webRequest.checkNotModified(postService.getPostEntityTag(postId, currentUser))) {
+            return null;
+        }
+        
         Post post = postService.getPostById(postId);
         PostResponse postResponse = postService.mapToPostResponse(post);
         
-        return ResponseEntity.ok(postResponse);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(postResponse);
     }
 
     //get all post
     @GetMapping
     public ResponseEntity<Page<PostResponse>> getAllPosts(
             @PageableDefault(size = 10) Pageable pageable,
-            @AuthenticationPrincipal User currentUser) {
+            @AuthenticationPrincipal User currentUser,
+            WebRequest webRequest) {
+        
+        if (webRequest.checkNotModified(postService.getListingEntityTag(null, pageable, currentUser))) {
+            return null;
+        }
         
         Page<PostResponse> posts = postService.getAllPosts(pageable, currentUser);
-        return ResponseEntity.ok(posts);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(posts);
     }
 
     @GetMapping("/user/{userId}")
@@ -73,10 +123,50 @@ public class PostController {
     public ResponseEntity<Page<PostResponse>> getPostsByCategory(
             @PathVariable Post.Category category,
             @PageableDefault(size = 10) Pageable pageable,
-            @AuthenticationPrincipal User currentUser) {
+            @AuthenticationPrincipal User currentUser,
+            WebRequest webRequest) {
+        
+        if (webRequest.checkNotModified(postService.getListingEntityTag(category, pageable, currentUser))) {
+            return null;
+        }
         
         Page<PostResponse> posts = postService.getPostsByCategory(category, pageable, currentUser);
-        return ResponseEntity.ok(posts);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(posts);
+    }
+
+    // Cursor-based feeds for infinite scroll: no total count, constant cost per page
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPageResponse<PostResponse>> getFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        return ResponseEntity.ok(toCursorPage(postService.getFeed(cursor, size)));
+    }
+
+    @GetMapping("/user/{userId}/feed")
+    public ResponseEntity<CursorPageResponse<PostResponse>> getUserFeed(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        return ResponseEntity.ok(toCursorPage(postService.getUserFeed(userId, cursor, size)));
+    }
+
+    @GetMapping("/category/{category}/feed")
+    public ResponseEntity<CursorPageResponse<PostResponse>> getCategoryFeed(
+            @PathVariable Post.Category category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        return ResponseEntity.ok(toCursorPage(postService.getCategoryFeed(category, cursor, size)));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<PostResponse>> getTrendingPosts(
+            @RequestParam(required = false) Post.Category category,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        return ResponseEntity.ok(trendingService.getTrendingPosts(category, limit));
     }
 
     @PutMapping(value = "/{postId}", consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
@@ -120,4 +210,8 @@ public class PostController {
         postService.deleteMedia(mediaId, currentUser.getEmail());
         return ResponseEntity.ok(new ApiResponse(true, "Media deleted successfully"));
     }
+
+    private CursorPageResponse<PostResponse> toCursorPage(Slice<PostResponse> posts) {
+        return CursorPageResponse.of(posts, post -> FeedCursor.encode(post.getCreatedAt(), post.getId()));
+    }
 }
@@ -0,0 +1,52 @@
+package com.learnlink.dto.request;
+
+import com.learnlink.model.Post;
+import com.learnlink.service.FileStorageService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * One line of an NDJSON post import. Media must already be reachable at {@code fileUrl};
+ * nothing is uploaded during an import.
+ */
+@Data
+public class PostImportRequest {
+    @NotBlank
+    @Size(min = 3, max = 100)
+    private String title;
+    
+    @NotBlank
+    private String content;
+    
+    private Post.Category category;
+    
+    private Integer learningProgressPercent;
+    
+    // Original publication date on the source platform; defaults to the import time
+    private Date createdAt;
+    
+    // An explicit "media": null is rejected like any other invalid record
+    @NotNull
+    private List<@NotNull @Valid MediaImport> media = new ArrayList<>();
+    
+    @Data
+    public static class MediaImport {
+        // Deleting the post deletes this file, so only names issued by the upload endpoint are accepted
+        @Pattern(regexp = FileStorageService.STORED_FILE_NAME_PATTERN,
+                 message = "must be a file name returned by the upload endpoint")
+        private String fileName;
+        
+        private String fileType;
+        
+        @NotBlank
+        private String fileUrl;
+    }
+}
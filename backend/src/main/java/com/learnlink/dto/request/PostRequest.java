@@ -17,4 +17,6 @@ public class PostRequest {
     private Post.Category category;
     
     private Integer learningProgressPercent;
+    
+    private Long learningPlanId;
 }
@@ -17,7 +17,12 @@ public class CommentResponse {
     private Date createdAt;
     private Date updatedAt;
     private Long parentCommentId;
+    private int depth;
     private List<CommentResponse> replies;
+    // Total number of replies, in comment page listings; replies holds at most the first few of them
+    private int replyCount;
+    // Set on single comments whose replies continue past the first page, see /api/comments/{id}/replies
+    private String repliesCursor;
     
     @Data
     @Builder
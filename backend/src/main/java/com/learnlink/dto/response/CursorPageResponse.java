@@ -0,0 +1,31 @@
+package com.learnlink.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@Builder
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    
+    public static <T> CursorPageResponse<T> of(Slice<T> slice, Function<T, String> cursorOf) {
+        List<T> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? cursorOf.apply(content.get(content.size() - 1))
+                : null;
+        
+        return CursorPageResponse.<T>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
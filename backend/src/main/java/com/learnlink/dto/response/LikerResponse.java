@@ -0,0 +1,20 @@
+package com.learnlink.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikerResponse {
+    private Long likeId;
+    private Long userId;
+    private String name;
+    private String profilePicture;
+    private Date likedAt;
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 
 import java.util.Date;
+import java.util.List;
 
 @Data
 @Builder
@@ -18,6 +19,11 @@ public class NotificationResponse {
     private String entityType;
     private Long entityId;
     private Date createdAt;
+    // Latest activity; differs from createdAt once more actors joined a grouped notification
+    private Date updatedAt;
+    // Grouped notifications: how many users did this, and the latest of them
+    private Integer actorCount;
+    private List<UserSummaryResponse> recentActors;
     
     @Data
     @Builder
@@ -0,0 +1,21 @@
+package com.learnlink.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Progress of a bulk post import, streamed back as one NDJSON line per committed chunk
+ */
+@Data
+@Builder
+public class PostImportProgress {
+    private int chunk;
+    private int imported;
+    private int failed;
+    private long totalImported;
+    private long totalFailed;
+    private List<String> errors;
+    private boolean done;
+}
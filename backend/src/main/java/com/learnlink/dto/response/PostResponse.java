@@ -9,7 +9,7 @@ import java.util.Date;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class PostResponse {
     private Long id;
     private String title;
@@ -18,6 +18,7 @@ public class PostResponse {
     private UserSummaryResponse author;
     private List<MediaResponse> media;
     private Integer learningProgressPercent;
+    private Long learningPlanId;
     private Date createdAt;
     private Date updatedAt;
     private int likesCount;
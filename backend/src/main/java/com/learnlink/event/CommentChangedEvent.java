@@ -0,0 +1,25 @@
+package com.learnlink.event;
+
+import com.learnlink.dto.response.CommentResponse;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a comment is created, edited or deleted, carrying the comment as clients see it
+ * (null for deletions). Live comment streams forward it once the publishing transaction commits.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CommentChangedEvent {
+    
+    private final Long postId;
+    private final Long commentId;
+    private final ChangeType type;
+    private final CommentResponse comment;
+    
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
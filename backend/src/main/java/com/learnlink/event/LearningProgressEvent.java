@@ -0,0 +1,9 @@
+package com.learnlink.event;
+
+/**
+ * Outbox payload: a user's progress on a learning plan changed, optionally by completing a topic
+ * or a resource. Records the progress activities and copies the progress onto linked posts.
+ */
+public record LearningProgressEvent(Long userId, Long learningPlanId, Integer progressPercentage,
+                                    Long completedTopicId, Long completedResourceId) {
+}
@@ -0,0 +1,16 @@
+package com.learnlink.event;
+
+import com.learnlink.dto.response.NotificationResponse;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a notification is stored; pushed to the recipient's open streams after commit.
+ */
+@Getter
+@RequiredArgsConstructor
+public class NotificationCreatedEvent {
+    
+    private final Long recipientId;
+    private final NotificationResponse notification;
+}
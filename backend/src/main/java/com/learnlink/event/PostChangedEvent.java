@@ -0,0 +1,44 @@
+package com.learnlink.event;
+
+import com.learnlink.model.Post;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published whenever a post or anything rendered with it (media, likes, comments) changes.
+ * Listeners that keep derived state, such as cached post pages, react after the
+ * publishing transaction commits.
+ */
+@Getter
+@RequiredArgsConstructor
+public class PostChangedEvent {
+    
+    private final Long postId;
+    private final Long authorId;
+    private final Post.Category category;
+    private final ChangeType type;
+    
+    public static PostChangedEvent of(Post post, ChangeType type) {
+        return new PostChangedEvent(post.getId(), post.getAuthor().getId(), post.getCategory(), type);
+    }
+    
+    /**
+     * A change to an unspecified set of posts by one author
+     */
+    public static PostChangedEvent ofAuthor(Long authorId, ChangeType type) {
+        return new PostChangedEvent(null, authorId, null, type);
+    }
+    
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED,
+        MEDIA_DELETED,
+        LIKED,
+        UNLIKED,
+        COMMENTED,
+        COMMENT_DELETED,
+        LEARNING_PROGRESS_UPDATED,
+        AUTHOR_UPDATED
+    }
+}
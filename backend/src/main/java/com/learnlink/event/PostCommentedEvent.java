@@ -0,0 +1,8 @@
+package com.learnlink.event;
+
+/**
+ * Outbox payload: a user commented on a post. Records the comment activity and notifies
+ * the author of the parent comment, or of the post for a root comment.
+ */
+public record PostCommentedEvent(Long userId, Long postId, Long commentId) {
+}
@@ -0,0 +1,7 @@
+package com.learnlink.event;
+
+/**
+ * Outbox payload: a user liked a post. Records the like activity and notifies the author.
+ */
+public record PostLikedEvent(Long userId, Long postId) {
+}
@@ -1,6 +1,8 @@
 package com.learnlink.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,13 +11,21 @@ import lombok.NoArgsConstructor;
 import java.util.Date;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+    @Index(name = "idx_comments_post_root_created", columnList = "post_id, parent_id, created_at"),
+    @Index(name = "idx_comments_parent_created_id", columnList = "parent_id, created_at, id"),
+    @Index(name = "idx_comments_path", columnList = "path")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Comment {
     
+    // Digits of one zero-padded id segment in a path
+    private static final int PATH_SEGMENT_WIDTH = 10;
+    public static final int MAX_DEPTH = 64;
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -25,22 +35,42 @@ public class Comment {
     private User user;
     
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "post_id", nullable = false)
+    @JoinColumn(name = "post_id", nullable = false, foreignKey = @ForeignKey(name = "FK_POST_COMMENT"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Post post;
     
     @Column(columnDefinition = "TEXT", nullable = false)
     private String content;
     
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "parent_id")
+    @JoinColumn(name = "parent_id", foreignKey = @ForeignKey(name = "FK_COMMENT_PARENT"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Comment parentComment;
     
+    /**
+     * Materialized path: the ids from the root down to this comment, each zero-padded and followed by '/'.
+     * Sorting by path lists a thread depth-first in display order, and a subtree is a prefix range.
+     */
+    @Column(columnDefinition = "VARCHAR(760) CHARACTER SET ascii")
+    private String path;
+    
+    // 0 for root comments
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer depth = 0;
+    
     @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at")
     private Date createdAt;
     
     @Temporal(TemporalType.TIMESTAMP)
     private Date updatedAt;
     
+    public static String childPath(String parentPath, Long id) {
+        String segment = String.format("%0" + PATH_SEGMENT_WIDTH + "d/", id);
+        return parentPath != null ? parentPath + segment : segment;
+    }
+    
     @PrePersist
     protected void onCreate() {
         createdAt = new Date();
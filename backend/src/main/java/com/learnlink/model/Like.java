@@ -1,6 +1,8 @@
 package com.learnlink.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,6 +13,8 @@ import java.util.Date;
 @Entity
 @Table(name = "likes", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"user_id", "post_id"})
+}, indexes = {
+    @Index(name = "idx_likes_post_created_id", columnList = "post_id, created_at, id")
 })
 @Data
 @Builder
@@ -27,10 +31,12 @@ public class Like {
     private User user;
     
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "post_id", nullable = false)
+    @JoinColumn(name = "post_id", nullable = false, foreignKey = @ForeignKey(name = "FK_POST_LIKE"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Post post;
     
     @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at")
     private Date createdAt;
     
     @PrePersist
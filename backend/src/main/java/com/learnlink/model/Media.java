@@ -1,6 +1,8 @@
 package com.learnlink.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,7 +23,8 @@ public class Media {
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "post_id")
+    @JoinColumn(name = "post_id", foreignKey = @ForeignKey(name = "FK_POST_MEDIA"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Post post;
     
     private String fileName;
@@ -33,6 +36,13 @@ public class Media {
     @Enumerated(EnumType.STRING)
     private MediaType type;
     
+    @Column(name = "file_size")
+    private Long fileSize;
+    
+    // SHA-256 of the stored bytes, hex encoded
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
     @Temporal(TemporalType.TIMESTAMP)
     private Date uploadedAt;
     
@@ -45,6 +55,22 @@ public class Media {
         IMAGE, 
         VIDEO, 
         DOCUMENT,
-        AUDIO
+        AUDIO;
+        
+        public static MediaType fromContentType(String contentType) {
+            if (contentType == null) {
+                return DOCUMENT;
+            }
+            
+            if (contentType.startsWith("image/")) {
+                return IMAGE;
+            } else if (contentType.startsWith("video/")) {
+                return VIDEO;
+            } else if (contentType.startsWith("audio/")) {
+                return AUDIO;
+            } else {
+                return DOCUMENT;
+            }
+        }
     }
 }
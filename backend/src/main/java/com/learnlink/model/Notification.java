@@ -9,7 +9,11 @@ import lombok.NoArgsConstructor;
 import java.util.Date;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_group", columnList = "user_id, type, entity_type, entity_id, is_read"),
+    @Index(name = "idx_notifications_recipient_updated", columnList = "user_id, updated_at"),
+    @Index(name = "idx_notifications_unread", columnList = "user_id, is_read, updated_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -31,21 +35,41 @@ public class Notification {
     @Enumerated(EnumType.STRING)
     private NotificationType type;
     
+    // Null for grouped activity, whose message is rendered from the type, the entity and the current actor names
     private String message;
     
     @Column(name = "is_read")
     private Boolean isRead;
     
+    @Column(name = "entity_type")
     private String entityType;
     
+    @Column(name = "entity_id")
     private Long entityId;
     
+    // Number of distinct actors folded into this notification, and the latest of them, comma separated, latest first
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer actorCount = 1;
+    
+    private String recentActorIds;
+    
     @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at")
     private Date createdAt;
     
+    // Time of the latest activity: a grouped notification moves to the top when more actors join it,
+    // and streams replay by it
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "updated_at")
+    private Date updatedAt;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = new Date();
+        if (updatedAt == null) {
+            updatedAt = createdAt;
+        }
         if (isRead == null) {
             isRead = false;
         }
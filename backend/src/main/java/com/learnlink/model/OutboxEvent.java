@@ -0,0 +1,61 @@
+package com.learnlink.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * A side effect of a committed write, recorded in the same transaction and carried out later
+ * by the outbox workers. Rows are claimed while {@code processed_at} is null and
+ * {@code available_at} has passed; claiming pushes {@code available_at} forward as a lease.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_pending", columnList = "processed_at, available_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 64)
+    private Type type;
+    
+    // JSON of the event's payload record
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+    
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "available_at", nullable = false)
+    private Date availableAt;
+    
+    @Column(nullable = false)
+    private Integer attempts;
+    
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "processed_at")
+    private Date processedAt;
+    
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+    
+    public enum Type {
+        POST_LIKED,
+        POST_COMMENTED,
+        LEARNING_PROGRESS
+    }
+}
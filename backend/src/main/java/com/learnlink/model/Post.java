@@ -1,6 +1,8 @@
 package com.learnlink.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,7 +13,12 @@ import java.util.Date;
 import java.util.List;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+    @Index(name = "idx_posts_created_id", columnList = "created_at, id"),
+    @Index(name = "idx_posts_category_created_id", columnList = "category, created_at, id"),
+    @Index(name = "idx_posts_user_created_id", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_posts_learning_plan_user", columnList = "learning_plan_id, user_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -40,7 +47,21 @@ public class Post {
     
     private Integer learningProgressPercent;
     
+    // The learning plan whose progress this post reports, if any
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "learning_plan_id")
+    @OnDelete(action = OnDeleteAction.SET_NULL)
+    private LearningPlan learningPlan;
+    
+    // Maintained with atomic UPDATE statements, never written back from the entity
+    @Column(name = "likes_count", nullable = false, updatable = false)
+    private Integer likesCount;
+    
+    @Column(name = "comments_count", nullable = false, updatable = false)
+    private Integer commentsCount;
+    
     @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at")
     private Date createdAt;
     
     @Temporal(TemporalType.TIMESTAMP)
@@ -50,6 +71,12 @@ public class Post {
     protected void onCreate() {
         createdAt = new Date();
         updatedAt = new Date();
+        if (likesCount == null) {
+            likesCount = 0;
+        }
+        if (commentsCount == null) {
+            commentsCount = 0;
+        }
     }
     
     @PreUpdate
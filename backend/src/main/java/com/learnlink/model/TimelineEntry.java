@@ -0,0 +1,47 @@
+package com.learnlink.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * One post pushed into one user's home timeline (fan-out-on-write).
+ * Rows only hold ids and the post's creation time so a timeline page is a single
+ * range scan on (user_id, created_at, post_id).
+ */
+@Entity
+@Table(name = "timeline_entries", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"user_id", "post_id"})
+}, indexes = {
+    @Index(name = "idx_timeline_user_created_post", columnList = "user_id, created_at, post_id"),
+    @Index(name = "idx_timeline_post", columnList = "post_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Owner of the timeline
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+    
+    @Column(name = "author_id", nullable = false)
+    private Long authorId;
+    
+    // Creation time of the post, used for ordering
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+}
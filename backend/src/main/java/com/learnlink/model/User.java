@@ -53,6 +53,16 @@ public class User implements UserDetails {
     @Temporal(TemporalType.TIMESTAMP)
     private Date joinedDate;
     
+    // Notifications up to this time count as read; maintained with an UPDATE statement, never written back from the entity
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "notifications_read_at", insertable = false, updatable = false)
+    private Date notificationsReadAt;
+    
+    // When the home timeline was first built from the user's follows; maintained with an UPDATE statement
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "timeline_materialized_at", insertable = false, updatable = false)
+    private Date timelineMaterializedAt;
+    
     @Column(name = "is_enabled")
     private boolean enabled = true;
     
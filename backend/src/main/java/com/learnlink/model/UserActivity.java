@@ -1,6 +1,8 @@
 package com.learnlink.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -52,11 +54,13 @@ public class UserActivity {
       // For POST_LIKE, POST_COMMENT
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "post_id", foreignKey = @ForeignKey(name = "FK_POST_USER_ACTIVITY"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Post post;
     
     // For POST_COMMENT
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "comment_id")
+    @JoinColumn(name = "comment_id", foreignKey = @ForeignKey(name = "FK_COMMENT_USER_ACTIVITY"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Comment comment;
     
     @Temporal(TemporalType.TIMESTAMP)
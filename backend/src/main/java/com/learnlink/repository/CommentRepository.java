@@ -2,21 +2,62 @@ package com.learnlink.repository;
 
 import com.learnlink.model.Comment;
 import com.learnlink.model.Post;
+import com.learnlink.repository.projection.CommentView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import java.util.Date;
+import java.util.Optional;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     
-    Page<Comment> findByPostAndParentCommentIsNullOrderByCreatedAtDesc(Post post, Pageable pageable);
+    // Keyset pages of the direct replies of a comment, oldest first
+    @Query("SELECT new com.learnlink.repository.projection.CommentView(" +
+            "c.id, c.post.id, c.parentComment.id, c.content, c.createdAt, c.updatedAt, c.user.id, c.depth, c.path) " +
+            "FROM Comment c WHERE c.parentComment.id = :parentId ORDER BY c.createdAt, c.id")
+    Slice<CommentView> findReplies(@Param("parentId") Long parentId, Pageable pageable);
     
-    List<Comment> findByParentCommentIdOrderByCreatedAtAsc(Long parentId);
+    @Query("SELECT new com.learnlink.repository.projection.CommentView(" +
+            "c.id, c.post.id, c.parentComment.id, c.content, c.createdAt, c.updatedAt, c.user.id, c.depth, c.path) " +
+            "FROM Comment c WHERE c.parentComment.id = :parentId " +
+            "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) ORDER BY c.createdAt, c.id")
+    Slice<CommentView> findRepliesAfter(@Param("parentId") Long parentId, @Param("createdAt") Date createdAt,
+                                        @Param("id") Long id, Pageable pageable);
     
-    long countByPost(Post post);
+    @Query(value = "SELECT new com.learnlink.repository.projection.CommentView(" +
+            "c.id, c.post.id, c.parentComment.id, c.content, c.createdAt, c.updatedAt, c.user.id, c.depth, c.path) " +
+            "FROM Comment c WHERE c.post.id = :postId AND c.parentComment IS NULL ORDER BY c.createdAt DESC, c.id DESC",
+            countQuery = "SELECT COUNT(c) FROM Comment c WHERE c.post.id = :postId AND c.parentComment IS NULL")
+    Page<CommentView> findRootViewsByPostId(@Param("postId") Long postId, Pageable pageable);
+    
+    // A subtree in display order, down to maxDepth, continuing after the path of the last comment seen
+    @Query("SELECT new com.learnlink.repository.projection.CommentView(" +
+            "c.id, c.post.id, c.parentComment.id, c.content, c.createdAt, c.updatedAt, c.user.id, c.depth, c.path) " +
+            "FROM Comment c WHERE c.path LIKE CONCAT(:rootPath, '%') AND c.path > :afterPath AND c.depth <= :maxDepth " +
+            "ORDER BY c.path")
+    Slice<CommentView> findSubtree(@Param("rootPath") String rootPath, @Param("afterPath") String afterPath,
+                                   @Param("maxDepth") int maxDepth, Pageable pageable);
+    
+    @Query("SELECT c.path FROM Comment c WHERE c.id = :id")
+    Optional<String> findPathById(@Param("id") Long id);
+    
+    long countByPathStartingWith(String path);
     
-    List<Comment> findByPost(Post post);
+    // Deepest replies go first, so no parent is removed before its replies even without ON DELETE CASCADE
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM comments WHERE path LIKE CONCAT(:path, '%') ORDER BY depth DESC", nativeQuery = true)
+    int deleteSubtree(@Param("path") String path);
+    
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM comments WHERE post_id = :postId ORDER BY depth DESC", nativeQuery = true)
+    int deleteAllByPostId(@Param("postId") Long postId);
+    
+    long countByPost(Post post);
 }
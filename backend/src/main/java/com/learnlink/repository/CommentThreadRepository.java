@@ -0,0 +1,69 @@
+package com.learnlink.repository;
+
+import com.learnlink.repository.projection.CommentView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reply queries for comment threads that need window functions, which JPQL cannot express.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CommentThreadRepository {
+
+    // Oldest replies first; the window count is the total number of replies of each parent
+    private static final String FIRST_REPLIES =
+            "SELECT id, post_id, parent_id, content, created_at, updated_at, user_id, depth, path, reply_count FROM (" +
+            "  SELECT c.id, c.post_id, c.parent_id, c.content, c.created_at, c.updated_at, c.user_id, c.depth, c.path," +
+            "         ROW_NUMBER() OVER (PARTITION BY c.parent_id ORDER BY c.created_at, c.id) AS position," +
+            "         COUNT(*) OVER (PARTITION BY c.parent_id) AS reply_count" +
+            "  FROM comments c WHERE c.parent_id IN (:parentIds)" +
+            ") replies WHERE position <= :limit ORDER BY parent_id, position";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * The first {@code limit} replies of every parent, plus how many replies each parent has in total,
+     * with one query for all parents
+     */
+    public Replies findFirstReplies(Collection<Long> parentIds, int limit) {
+        List<CommentView> replies = new ArrayList<>();
+        Map<Long, Integer> replyCounts = new HashMap<>();
+        if (parentIds.isEmpty()) {
+            return new Replies(replies, replyCounts);
+        }
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("parentIds", parentIds)
+                .addValue("limit", limit);
+        jdbcTemplate.query(FIRST_REPLIES, parameters, row -> {
+            long parentId = row.getLong("parent_id");
+            replies.add(new CommentView(
+                    row.getLong("id"),
+                    row.getLong("post_id"),
+                    parentId,
+                    row.getString("content"),
+                    row.getTimestamp("created_at"),
+                    row.getTimestamp("updated_at"),
+                    row.getLong("user_id"),
+                    row.getInt("depth"),
+                    row.getString("path")));
+            replyCounts.put(parentId, row.getInt("reply_count"));
+        });
+        return new Replies(replies, replyCounts);
+    }
+
+    /**
+     * Replies in (parent, age) order, and the total reply count of each parent that has any
+     */
+    public record Replies(List<CommentView> replies, Map<Long, Integer> replyCounts) {
+    }
+}
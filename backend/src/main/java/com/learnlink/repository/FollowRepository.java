@@ -5,8 +5,12 @@ import com.learnlink.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -25,6 +29,12 @@ public interface FollowRepository extends JpaRepository<Follow, Long> {
     
     void deleteByFollowerAndFollowing(User follower, User following);
     
+    @Query("SELECT f.following.id FROM Follow f GROUP BY f.following.id HAVING COUNT(f) >= :threshold")
+    List<Long> findUserIdsWithFollowersAtLeast(@Param("threshold") long threshold);
+    
+    @Query("SELECT f.following.id FROM Follow f WHERE f.follower.id = :followerId AND f.following.id IN :userIds")
+    List<Long> findFollowedAmong(@Param("followerId") Long followerId, @Param("userIds") Collection<Long> userIds);
+    
     default Page<Follow> findFollowersByFollowing(User following, Pageable pageable) {
         return findByFollowing(following, pageable);
     }
@@ -2,6 +2,7 @@ package com.learnlink.repository;
 
 import com.learnlink.model.LearningPlan;
 import com.learnlink.model.User;
+import com.learnlink.repository.projection.LearningPlanVersionView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +10,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface LearningPlanRepository extends JpaRepository<LearningPlan, Long> {
     
@@ -26,4 +29,13 @@ public interface LearningPlanRepository extends JpaRepository<LearningPlan, Long
     Page<LearningPlan> searchLearningPlans(@Param("keyword") String keyword, @Param("userId") Long userId, Pageable pageable);
 
     Page<LearningPlan> findByIsPublicTrue(Pageable pageable);
+    
+    // Counts catch deleted topics and resources, which leave no newer updatedAt behind
+    @Query("SELECT new com.learnlink.repository.projection.LearningPlanVersionView(lp.isPublic, lp.creator.id, lp.updatedAt, " +
+           "(SELECT MAX(t.updatedAt) FROM Topic t WHERE t.learningPlan.id = lp.id), " +
+           "(SELECT COUNT(t) FROM Topic t WHERE t.learningPlan.id = lp.id), " +
+           "(SELECT MAX(r.updatedAt) FROM Resource r WHERE r.topic.learningPlan.id = lp.id), " +
+           "(SELECT COUNT(r) FROM Resource r WHERE r.topic.learningPlan.id = lp.id)) " +
+           "FROM LearningPlan lp WHERE lp.id = :planId")
+    Optional<LearningPlanVersionView> findVersionById(@Param("planId") Long planId);
 }
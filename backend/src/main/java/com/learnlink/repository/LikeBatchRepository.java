@@ -0,0 +1,43 @@
+package com.learnlink.repository;
+
+import com.learnlink.repository.projection.LikeKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC batch writes of likes for the write-behind buffer.
+ * Both statements are idempotent, and the per-row update counts tell which rows really changed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LikeBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert likes; a count of 0 means the like already existed
+     */
+    public int[] insertLikes(List<LikeKey> likes, Timestamp likedAt) {
+        return jdbcTemplate.batchUpdate(
+                "INSERT IGNORE INTO likes (user_id, post_id, created_at) VALUES (?, ?, ?)",
+                likes.stream()
+                        .map(like -> new Object[] {like.userId(), like.postId(), likedAt})
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Delete likes; a count of 0 means there was nothing to delete
+     */
+    public int[] deleteLikes(List<LikeKey> likes) {
+        return jdbcTemplate.batchUpdate(
+                "DELETE FROM likes WHERE user_id = ? AND post_id = ?",
+                likes.stream()
+                        .map(like -> new Object[] {like.userId(), like.postId()})
+                        .collect(Collectors.toList()));
+    }
+}
@@ -3,11 +3,24 @@ package com.learnlink.repository;
 import com.learnlink.model.Like;
 import com.learnlink.model.Post;
 import com.learnlink.model.User;
+import com.learnlink.repository.projection.LikerView;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface LikeRepository extends JpaRepository<Like, Long> {
@@ -22,6 +35,44 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
     
     long countByPost(Post post);
     
+    @Query("SELECT COUNT(l) > 0 FROM Like l WHERE l.user.id = :userId AND l.post.id = :postId")
+    boolean existsByUserIdAndPostId(@Param("userId") Long userId, @Param("postId") Long postId);
+    
+    @Query("SELECT l.post.id FROM Like l WHERE l.user.id = :userId AND l.post.id IN :postIds")
+    List<Long> findLikedPostIds(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
+    
+    @Query("SELECT l.post.id FROM Like l WHERE l.user.id = :userId ORDER BY l.post.id")
+    List<Long> findPostIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    // Keyset pages of a post's likers, newest first, with the user summary joined in
+    @Query("SELECT new com.learnlink.repository.projection.LikerView(l.id, l.createdAt, u.id, u.name, u.profilePicture) " +
+            "FROM Like l JOIN l.user u WHERE l.post.id = :postId ORDER BY l.createdAt DESC, l.id DESC")
+    Slice<LikerView> findLikers(@Param("postId") Long postId, Pageable pageable);
+    
+    @Query("SELECT new com.learnlink.repository.projection.LikerView(l.id, l.createdAt, u.id, u.name, u.profilePicture) " +
+            "FROM Like l JOIN l.user u WHERE l.post.id = :postId " +
+            "AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id < :id)) " +
+            "ORDER BY l.createdAt DESC, l.id DESC")
+    Slice<LikerView> findLikersAfter(@Param("postId") Long postId, @Param("createdAt") Date createdAt,
+                                     @Param("id") Long id, Pageable pageable);
+    
+    // Streamed row by row from the driver instead of being buffered, for exports
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT l.user.id FROM Like l WHERE l.post.id = :postId")
+    Stream<Long> streamUserIdsByPostId(@Param("postId") Long postId);
+    
+    /**
+     * Like a post in one statement; returns 0 when the like already exists or the post does not
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO likes (user_id, post_id, created_at) " +
+            "SELECT :userId, p.id, :createdAt FROM posts p WHERE p.id = :postId", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("postId") Long postId, @Param("createdAt") Date createdAt);
+    
+    @Modifying
+    @Query(value = "DELETE FROM likes WHERE user_id = :userId AND post_id = :postId", nativeQuery = true)
+    int deleteByUserIdAndPostId(@Param("userId") Long userId, @Param("postId") Long postId);
+    
     void deleteByUserAndPost(User user, Post post);
     
     void deleteByPost(Post post);
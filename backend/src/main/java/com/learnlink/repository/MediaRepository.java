@@ -2,14 +2,28 @@ package com.learnlink.repository;
 
 import com.learnlink.model.Media;
 import com.learnlink.model.Post;
+import com.learnlink.repository.projection.MediaView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface MediaRepository extends JpaRepository<Media, Long> {
     List<Media> findByPost(Post post);
     
+    @Query("SELECT m FROM Media m WHERE m.post.id IN :postIds ORDER BY m.id")
+    List<Media> findByPostIds(@Param("postIds") Collection<Long> postIds);
+    
+    @Query("SELECT new com.learnlink.repository.projection.MediaView(m.post.id, m.id, m.fileName, m.fileType, m.fileUrl, m.type) " +
+           "FROM Media m WHERE m.post.id IN :postIds ORDER BY m.id")
+    List<MediaView> findViewsByPostIds(@Param("postIds") Collection<Long> postIds);
+    
+    @Query("SELECT m.fileName FROM Media m WHERE m.post.id = :postId AND m.fileName IS NOT NULL")
+    List<String> findFileNamesByPostId(@Param("postId") Long postId);
+    
     void deleteByPost(Post post);
 }
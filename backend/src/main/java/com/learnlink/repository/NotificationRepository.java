@@ -4,15 +4,74 @@ import com.learnlink.model.Notification;
 import com.learnlink.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
+import java.util.List;
+
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     
-    Page<Notification> findByRecipientOrderByCreatedAtDesc(User recipient, Pageable pageable);
+    Page<Notification> findByRecipientOrderByUpdatedAtDesc(User recipient, Pageable pageable);
+    
+    /**
+     * Notifications neither read one by one nor covered by the recipient's read watermark
+     */
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId AND n.isRead = false " +
+            "AND n.updatedAt > :readAt ORDER BY n.updatedAt DESC")
+    Page<Notification> findUnread(@Param("recipientId") Long recipientId, @Param("readAt") Date readAt, Pageable pageable);
+    
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.recipient.id = :recipientId AND n.isRead = false " +
+            "AND n.updatedAt > :readAt")
+    long countUnread(@Param("recipientId") Long recipientId, @Param("readAt") Date readAt);
+    
+    /**
+     * Notifications with activity at or after {@code since}, oldest activity first
+     */
+    @EntityGraph(attributePaths = "actor")
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId AND n.updatedAt >= :since " +
+            "ORDER BY n.updatedAt ASC, n.id ASC")
+    List<Notification> findUpdatedSince(@Param("recipientId") Long recipientId, @Param("since") Date since, Pageable pageable);
     
-    Page<Notification> findByRecipientAndIsReadOrderByCreatedAtDesc(User recipient, Boolean isRead, Pageable pageable);
+    /**
+     * Fold one more actor into the recipient's unread notification for an entity that saw activity since
+     * {@code since}, in place: the actor becomes the latest, is counted unless already among the recent
+     * actors, and the notification's activity time moves to {@code now}. Returns 0 when there is no such notification.
+     * actor_count is assigned first so it still sees the recent actors from before this activity.
+     */
+    @Modifying
+    @Query(value = "UPDATE notifications SET " +
+            "actor_count = actor_count + IF(FIND_IN_SET(:actorId, COALESCE(recent_actor_ids, '')) > 0, 0, 1), " +
+            "recent_actor_ids = SUBSTRING_INDEX(CONCAT_WS(',', :actorId, NULLIF(TRIM(BOTH ',' FROM " +
+            "REPLACE(CONCAT(',', COALESCE(recent_actor_ids, ''), ','), CONCAT(',', :actorId, ','), ',')), '')), " +
+            "',', :recentActorLimit), " +
+            "actor_id = :actorId, updated_at = :now " +
+            "WHERE user_id = :recipientId AND type = :type AND entity_type = :entityType AND entity_id = :entityId " +
+            "AND is_read = false AND updated_at >= :since " +
+            "ORDER BY updated_at DESC LIMIT 1", nativeQuery = true)
+    int foldIntoGroup(@Param("recipientId") Long recipientId,
+                      @Param("type") String type,
+                      @Param("entityType") String entityType,
+                      @Param("entityId") Long entityId,
+                      @Param("actorId") Long actorId,
+                      @Param("recentActorLimit") int recentActorLimit,
+                      @Param("since") Date since,
+                      @Param("now") Date now);
     
-    long countByRecipientAndIsRead(User recipient, Boolean isRead);
+    /**
+     * The notification {@link #foldIntoGroup} just moved to {@code updatedAt}
+     */
+    @EntityGraph(attributePaths = "actor")
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId AND n.type = :type " +
+            "AND n.entityType = :entityType AND n.entityId = :entityId AND n.updatedAt = :updatedAt")
+    List<Notification> findGroupUpdatedAt(@Param("recipientId") Long recipientId,
+                                          @Param("type") Notification.NotificationType type,
+                                          @Param("entityType") String entityType,
+                                          @Param("entityId") Long entityId,
+                                          @Param("updatedAt") Date updatedAt);
 }
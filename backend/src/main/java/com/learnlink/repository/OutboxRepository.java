@@ -0,0 +1,83 @@
+package com.learnlink.repository;
+
+import com.learnlink.model.OutboxEvent;
+import com.learnlink.repository.projection.OutboxRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC access to the outbox. Writes join the caller's transaction; claims lock rows with
+ * {@code FOR UPDATE SKIP LOCKED} so concurrent workers, on this or another instance, take disjoint batches.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public void insert(OutboxEvent.Type type, List<String> payloads, Timestamp createdAt) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO outbox_events (type, payload, created_at, available_at, attempts) VALUES (?, ?, ?, ?, 0)",
+                payloads.stream()
+                        .map(payload -> new Object[] {type.name(), payload, createdAt, createdAt})
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Lock up to {@code limit} due rows, oldest first, and lease them until {@code leaseUntil}.
+     * Must run in a transaction; the lease outlives it, so the rows stay with the caller after commit.
+     */
+    public List<OutboxRecord> claim(int limit, int maxAttempts, Timestamp now, Timestamp leaseUntil) {
+        List<OutboxRecord> due = jdbcTemplate.query(
+                "SELECT id, type, payload, attempts FROM outbox_events " +
+                        "WHERE processed_at IS NULL AND available_at <= ? AND attempts < ? " +
+                        "ORDER BY available_at, id LIMIT ? FOR UPDATE SKIP LOCKED",
+                (rs, rowNum) -> new OutboxRecord(
+                        rs.getLong("id"),
+                        OutboxEvent.Type.valueOf(rs.getString("type")),
+                        rs.getString("payload"),
+                        rs.getInt("attempts") + 1),
+                now, maxAttempts, limit);
+        if (!due.isEmpty()) {
+            namedParameterJdbcTemplate.update(
+                    "UPDATE outbox_events SET available_at = :leaseUntil, attempts = attempts + 1 WHERE id IN (:ids)",
+                    new MapSqlParameterSource()
+                            .addValue("leaseUntil", leaseUntil)
+                            .addValue("ids", due.stream().map(OutboxRecord::id).collect(Collectors.toList())));
+        }
+        return due;
+    }
+
+    /**
+     * Mark a row processed, in the transaction that applies its effects. Returns false when another
+     * worker already did (its lease expired while the first was still at it), in which case the effects
+     * must not be applied again.
+     */
+    public boolean markProcessed(Long id, Timestamp processedAt) {
+        return jdbcTemplate.update(
+                "UPDATE outbox_events SET processed_at = ? WHERE id = ? AND processed_at IS NULL",
+                processedAt, id) > 0;
+    }
+
+    /**
+     * Release a row for another attempt at {@code retryAt}
+     */
+    public void markFailed(Long id, Timestamp retryAt, String error) {
+        jdbcTemplate.update(
+                "UPDATE outbox_events SET available_at = ?, last_error = ? WHERE id = ? AND processed_at IS NULL",
+                retryAt, error, id);
+    }
+
+    public int deleteProcessedBefore(Timestamp before, int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM outbox_events WHERE processed_at < ? LIMIT ?", before, limit);
+    }
+}
@@ -0,0 +1,101 @@
+package com.learnlink.repository;
+
+import com.learnlink.dto.request.PostImportRequest;
+import com.learnlink.model.Media;
+import com.learnlink.model.Post;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * JDBC batch inserts for bulk post imports.
+ * Posts keep their IDENTITY ids: each chunk is sent as one batch (rewritten into a multi-row
+ * INSERT by the MySQL driver with {@code rewriteBatchedStatements=true}) and the generated ids
+ * are read back from the batch, so media rows can be inserted as a second batch without
+ * a round trip per post.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PostBatchRepository {
+
+    private static final String INSERT_POST =
+            "INSERT INTO posts (user_id, title, content, category, learning_progress_percent, " +
+            "likes_count, comments_count, created_at, updated_at) VALUES (?, ?, ?, ?, ?, 0, 0, ?, ?)";
+
+    private static final String INSERT_MEDIA =
+            "INSERT INTO media (post_id, file_name, file_type, file_url, type, uploaded_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert the posts as one batch and return their generated ids, in input order
+     */
+    public List<Long> insertPosts(Long authorId, List<PostImportRequest> posts, Date importedAt) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_POST, Statement.RETURN_GENERATED_KEYS)) {
+                for (PostImportRequest post : posts) {
+                    Timestamp createdAt = new Timestamp((post.getCreatedAt() != null ? post.getCreatedAt() : importedAt).getTime());
+                    statement.setLong(1, authorId);
+                    statement.setString(2, post.getTitle());
+                    statement.setString(3, post.getContent());
+                    statement.setString(4, (post.getCategory() != null ? post.getCategory() : Post.Category.OTHER).name());
+                    if (post.getLearningProgressPercent() != null) {
+                        statement.setInt(5, post.getLearningProgressPercent());
+                    } else {
+                        statement.setNull(5, Types.INTEGER);
+                    }
+                    statement.setTimestamp(6, createdAt);
+                    statement.setTimestamp(7, createdAt);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                List<Long> ids = new ArrayList<>(posts.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                if (ids.size() != posts.size()) {
+                    throw new IncorrectResultSizeDataAccessException("Generated post ids", posts.size(), ids.size());
+                }
+                return ids;
+            }
+        });
+    }
+
+    /**
+     * Insert the media of every post as one batch; {@code postIds} is aligned with {@code posts}
+     */
+    public int insertMedia(List<Long> postIds, List<PostImportRequest> posts, Date importedAt) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < posts.size(); i++) {
+            for (PostImportRequest.MediaImport media : posts.get(i).getMedia()) {
+                rows.add(new Object[] {
+                        postIds.get(i),
+                        media.getFileName(),
+                        media.getFileType(),
+                        media.getFileUrl(),
+                        Media.MediaType.fromContentType(media.getFileType()).name(),
+                        new Timestamp(importedAt.getTime())
+                });
+            }
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_MEDIA, rows);
+        return rows.size();
+    }
+}
@@ -1,23 +1,157 @@
 package com.learnlink.repository;
 
 import com.learnlink.model.Post;
-import com.learnlink.model.User;
+import com.learnlink.repository.projection.PostEngagementView;
+import com.learnlink.repository.projection.PostLikesView;
+import com.learnlink.repository.projection.PostListingView;
+import com.learnlink.repository.projection.PostVersionView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
-    Page<Post> findByAuthorOrderByCreatedAtDesc(User author, Pageable pageable);
-    
-    Page<Post> findByCategoryOrderByCreatedAtDesc(Post.Category category, Pageable pageable);
+    String LISTING_COLUMNS = "p.id, p.title, p.content, p.category, p.learningProgressPercent, p.learningPlan.id, p.createdAt, p.updatedAt, " +
+                             "p.likesCount, p.commentsCount, a.id, a.name, a.profilePicture";
     
+    @EntityGraph(attributePaths = "author")
     Page<Post> findByTitleContainingIgnoreCaseOrContentContainingIgnoreCaseOrderByCreatedAtDesc(
         String titleKeyword, String contentKeyword, Pageable pageable);
     
-    Page<Post> findAllByOrderByCreatedAtDesc(Pageable pageable);
+    // Read-only listing projections: only the columns a PostResponse needs, no managed entities
+    @Query(value = "SELECT new com.learnlink.repository.projection.PostListingView(" + LISTING_COLUMNS + ") " +
+                   "FROM Post p JOIN p.author a ORDER BY p.createdAt DESC, p.id DESC",
+           countQuery = "SELECT COUNT(p) FROM Post p")
+    Page<PostListingView> findListingPage(Pageable pageable);
+    
+    @Query(value = "SELECT new com.learnlink.repository.projection.PostListingView(" + LISTING_COLUMNS + ") " +
+                   "FROM Post p JOIN p.author a WHERE p.category = :category ORDER BY p.createdAt DESC, p.id DESC",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.category = :category")
+    Page<PostListingView> findListingPageByCategory(@Param("category") Post.Category category, Pageable pageable);
+    
+    @Query(value = "SELECT new com.learnlink.repository.projection.PostListingView(" + LISTING_COLUMNS + ") " +
+                   "FROM Post p JOIN p.author a WHERE a.id = :authorId ORDER BY p.createdAt DESC, p.id DESC",
+           countQuery = "SELECT COUNT(p) FROM Post p WHERE p.author.id = :authorId")
+    Page<PostListingView> findListingPageByAuthor(@Param("authorId") Long authorId, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT p FROM Post p WHERE p.id IN :ids")
+    List<Post> findAllWithAuthorByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Keyset (cursor) feeds: rows strictly after the (createdAt, id) of the last row seen, no count query
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT p FROM Post p ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Post> findFeed(Pageable pageable);
+    
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT p FROM Post p WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Post> findFeedAfter(@Param("createdAt") Date createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT p FROM Post p WHERE p.category = :category ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Post> findCategoryFeed(@Param("category") Post.Category category, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT p FROM Post p WHERE p.category = :category AND " +
+           "(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Post> findCategoryFeedAfter(@Param("category") Post.Category category, @Param("createdAt") Date createdAt, 
+                                      @Param("id") Long id, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT p FROM Post p WHERE p.author.id = :authorId ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Post> findAuthorFeed(@Param("authorId") Long authorId, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT p FROM Post p WHERE p.author.id = :authorId AND " +
+           "(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Post> findAuthorFeedAfter(@Param("authorId") Long authorId, @Param("createdAt") Date createdAt, 
+                                    @Param("id") Long id, Pageable pageable);
+    
+    // One keyset feed over several authors, e.g. the heavy authors merged into a home timeline
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT p FROM Post p WHERE p.author.id IN :authorIds ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Post> findAuthorsFeed(@Param("authorIds") Collection<Long> authorIds, Pageable pageable);
+    
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT p FROM Post p WHERE p.author.id IN :authorIds AND " +
+           "(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Post> findAuthorsFeedAfter(@Param("authorIds") Collection<Long> authorIds, @Param("createdAt") Date createdAt,
+                                     @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT new com.learnlink.repository.projection.PostEngagementView(" +
+           "p.id, p.category, p.createdAt, p.likesCount, p.commentsCount) " +
+           "FROM Post p WHERE p.createdAt >= :since AND (p.likesCount > 0 OR p.commentsCount > 0)")
+    List<PostEngagementView> findEngagementSince(@Param("since") Date since);
+    
+    @Query("SELECT new com.learnlink.repository.projection.PostVersionView(p.updatedAt, p.likesCount, p.commentsCount, " +
+           "(SELECT COUNT(m) FROM Media m WHERE m.post.id = p.id), (SELECT MAX(m.id) FROM Media m WHERE m.post.id = p.id), " +
+           "p.learningProgressPercent, lp.id, a.name, a.profilePicture) " +
+           "FROM Post p JOIN p.author a LEFT JOIN p.learningPlan lp WHERE p.id = :postId")
+    Optional<PostVersionView> findVersionById(@Param("postId") Long postId);
+    
+    // Only rows whose value actually changes are written
+    @Modifying
+    @Query("UPDATE Post p SET p.learningProgressPercent = :percent " +
+           "WHERE p.learningPlan.id = :learningPlanId AND p.author.id = :userId " +
+           "AND (p.learningProgressPercent IS NULL OR p.learningProgressPercent <> :percent)")
+    int updateLearningProgress(@Param("learningPlanId") Long learningPlanId, @Param("userId") Long userId,
+                               @Param("percent") Integer percent);
+    
+    @Query("SELECT p.likesCount FROM Post p WHERE p.id = :postId")
+    Optional<Integer> findLikesCountById(@Param("postId") Long postId);
+    
+    // Read right after a like counter update, in the same transaction, instead of loading the post
+    @Query("SELECT new com.learnlink.repository.projection.PostLikesView(p.author.id, p.category, p.likesCount) " +
+           "FROM Post p WHERE p.id = :postId")
+    Optional<PostLikesView> findLikesViewById(@Param("postId") Long postId);
+    
+    @Query("SELECT p.commentsCount FROM Post p WHERE p.id = :postId")
+    Optional<Integer> findCommentsCountById(@Param("postId") Long postId);
+    
+    // Counters never go below zero, even if they drifted low before a decrement
+    @Modifying
+    @Query("UPDATE Post p SET p.likesCount = CASE WHEN p.likesCount + :delta < 0 THEN 0 ELSE p.likesCount + :delta END " +
+           "WHERE p.id = :postId")
+    int incrementLikesCount(@Param("postId") Long postId, @Param("delta") int delta);
+    
+    @Modifying
+    @Query("UPDATE Post p SET p.commentsCount = CASE WHEN p.commentsCount + :delta < 0 THEN 0 ELSE p.commentsCount + :delta END " +
+           "WHERE p.id = :postId")
+    int incrementCommentsCount(@Param("postId") Long postId, @Param("delta") int delta);
+    
+    @Modifying
+    @Query("UPDATE Post p SET p.commentsCount = 0 WHERE p.id = :postId")
+    int resetCommentsCount(@Param("postId") Long postId);
+    
+    // Likes, media rows and activities go with the post through ON DELETE CASCADE; comments are deleted beforehand
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM posts WHERE id = :postId", nativeQuery = true)
+    int deleteCascadingById(@Param("postId") Long postId);
+    
+    // Recompute denormalized counters from the source tables, touching only rows that drifted
+    @Modifying
+    @Query(value = "UPDATE posts p LEFT JOIN (SELECT post_id, COUNT(*) AS total FROM likes GROUP BY post_id) l " +
+                   "ON l.post_id = p.id SET p.likes_count = COALESCE(l.total, 0) " +
+                   "WHERE p.likes_count <> COALESCE(l.total, 0)", nativeQuery = true)
+    int reconcileLikesCounts();
     
-    List<Post> findByAuthorId(Long authorId);
+    @Modifying
+    @Query(value = "UPDATE posts p LEFT JOIN (SELECT post_id, COUNT(*) AS total FROM comments GROUP BY post_id) c " +
+                   "ON c.post_id = p.id SET p.comments_count = COALESCE(c.total, 0) " +
+                   "WHERE p.comments_count <> COALESCE(c.total, 0)", nativeQuery = true)
+    int reconcileCommentsCounts();
 }
@@ -0,0 +1,104 @@
+package com.learnlink.repository;
+
+import com.learnlink.model.TimelineEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, Long> {
+    
+    @Query("SELECT t FROM TimelineEntry t WHERE t.userId = :userId ORDER BY t.createdAt DESC, t.postId DESC")
+    Slice<TimelineEntry> findTimeline(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT t FROM TimelineEntry t WHERE t.userId = :userId AND " +
+           "(t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.postId < :postId)) " +
+           "ORDER BY t.createdAt DESC, t.postId DESC")
+    Slice<TimelineEntry> findTimelineAfter(@Param("userId") Long userId, @Param("createdAt") Date createdAt, 
+                                           @Param("postId") Long postId, Pageable pageable);
+    
+    // Push a new post into the timeline of every follower of its author
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO timeline_entries (user_id, post_id, author_id, created_at) " +
+                   "SELECT f.follower_id, :postId, :authorId, :createdAt FROM follows f WHERE f.following_id = :authorId", 
+           nativeQuery = true)
+    int fanOutToFollowers(@Param("postId") Long postId, @Param("authorId") Long authorId, @Param("createdAt") Date createdAt);
+    
+    // Push a batch of imported posts into the author's and all followers' timelines in one statement
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO timeline_entries (user_id, post_id, author_id, created_at) " +
+                   "SELECT u.user_id, p.id, p.user_id, p.created_at FROM posts p " +
+                   "JOIN (SELECT :authorId AS user_id UNION ALL " +
+                   "      SELECT f.follower_id FROM follows f WHERE f.following_id = :authorId) u " +
+                   "WHERE p.id IN :postIds", nativeQuery = true)
+    int fanOutPosts(@Param("authorId") Long authorId, @Param("postIds") Collection<Long> postIds);
+    
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO timeline_entries (user_id, post_id, author_id, created_at) " +
+                   "SELECT p.user_id, p.id, p.user_id, p.created_at FROM posts p WHERE p.id IN :postIds", nativeQuery = true)
+    int insertOwnEntries(@Param("postIds") Collection<Long> postIds);
+    
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO timeline_entries (user_id, post_id, author_id, created_at) " +
+                   "VALUES (:userId, :postId, :authorId, :createdAt)", nativeQuery = true)
+    int insertEntry(@Param("userId") Long userId, @Param("postId") Long postId, 
+                    @Param("authorId") Long authorId, @Param("createdAt") Date createdAt);
+    
+    // Copy an author's most recent posts into a new follower's timeline
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO timeline_entries (user_id, post_id, author_id, created_at) " +
+                   "SELECT :userId, p.id, p.user_id, p.created_at FROM posts p WHERE p.user_id = :authorId " +
+                   "ORDER BY p.created_at DESC, p.id DESC LIMIT :limit", nativeQuery = true)
+    int backfillFromAuthor(@Param("userId") Long userId, @Param("authorId") Long authorId, @Param("limit") int limit);
+    
+    // Copy an author's most recent posts into every follower's timeline, e.g. when the author stops being heavy
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO timeline_entries (user_id, post_id, author_id, created_at) " +
+                   "SELECT f.follower_id, p.id, p.user_id, p.created_at FROM follows f " +
+                   "JOIN (SELECT id, user_id, created_at FROM posts WHERE user_id = :authorId " +
+                   "      ORDER BY created_at DESC, id DESC LIMIT :limit) p " +
+                   "WHERE f.following_id = :authorId", nativeQuery = true)
+    int backfillToFollowers(@Param("authorId") Long authorId, @Param("limit") int limit);
+    
+    // Rebuild a timeline from the user's own posts and the posts of everyone they follow
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO timeline_entries (user_id, post_id, author_id, created_at) " +
+                   "SELECT :userId, p.id, p.user_id, p.created_at FROM posts p " +
+                   "WHERE p.user_id = :userId OR p.user_id IN (SELECT f.following_id FROM follows f WHERE f.follower_id = :userId) " +
+                   "ORDER BY p.created_at DESC, p.id DESC LIMIT :limit", nativeQuery = true)
+    int rebuildTimeline(@Param("userId") Long userId, @Param("limit") int limit);
+    
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.userId = :userId AND t.authorId = :authorId")
+    int deleteByUserIdAndAuthorId(@Param("userId") Long userId, @Param("authorId") Long authorId);
+    
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.postId = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+    
+    @Query(value = "SELECT COALESCE(MAX(user_id), 0) FROM timeline_entries", nativeQuery = true)
+    long findMaxUserId();
+    
+    // Owners in [:fromUserId, :toUserId) whose timeline holds more than :cap rows
+    @Query(value = "SELECT user_id FROM timeline_entries WHERE user_id >= :fromUserId AND user_id < :toUserId " +
+                   "GROUP BY user_id HAVING COUNT(*) > :cap", nativeQuery = true)
+    List<Long> findUserIdsOverCap(@Param("fromUserId") long fromUserId, @Param("toUserId") long toUserId, @Param("cap") int cap);
+    
+    // Drop every entry of one timeline beyond its newest :cap rows: the first row past the cap and all older ones
+    @Modifying
+    @Query(value = "DELETE t FROM timeline_entries t JOIN (" +
+                   "SELECT created_at, post_id FROM timeline_entries WHERE user_id = :userId " +
+                   "ORDER BY created_at DESC, post_id DESC LIMIT 1 OFFSET :cap) edge " +
+                   "ON t.user_id = :userId AND (t.created_at < edge.created_at " +
+                   "OR (t.created_at = edge.created_at AND t.post_id <= edge.post_id))", 
+           nativeQuery = true)
+    int trimTimeline(@Param("userId") Long userId, @Param("cap") int cap);
+}
@@ -4,6 +4,8 @@ import com.learnlink.model.LearningPlan;
 import com.learnlink.model.User;
 import com.learnlink.model.UserProgress;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,4 +16,8 @@ public interface UserProgressRepository extends JpaRepository<UserProgress, Long
     Optional<UserProgress> findByUserAndLearningPlan(User user, LearningPlan learningPlan);
     
     boolean existsByUserAndLearningPlan(User user, LearningPlan learningPlan);
+    
+    @Query("SELECT up FROM UserProgress up WHERE up.user.id = :userId AND up.learningPlan.id = :learningPlanId")
+    Optional<UserProgress> findByUserIdAndLearningPlanId(@Param("userId") Long userId, 
+                                                         @Param("learningPlanId") Long learningPlanId);
 }
\ No newline at end of file
@@ -1,11 +1,18 @@
 package com.learnlink.repository;
 
 import com.learnlink.model.User;
+import com.learnlink.repository.projection.UserSummaryView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,4 +25,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Page<User> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(
         String name, String email, Pageable pageable);
+    
+    @Query("SELECT new com.learnlink.repository.projection.UserSummaryView(u.id, u.name, u.profilePicture) " +
+            "FROM User u WHERE u.id IN :ids")
+    List<UserSummaryView> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT u.notificationsReadAt FROM User u WHERE u.id = :id")
+    Date findNotificationsReadAtById(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE User u SET u.notificationsReadAt = :readAt WHERE u.id = :id")
+    int updateNotificationsReadAt(@Param("id") Long id, @Param("readAt") Date readAt);
+    
+    @Query("SELECT u.timelineMaterializedAt FROM User u WHERE u.id = :id")
+    Date findTimelineMaterializedAtById(@Param("id") Long id);
+    
+    // Only the first caller sets the marker, so concurrent first reads rebuild the timeline once
+    @Modifying
+    @Query("UPDATE User u SET u.timelineMaterializedAt = :materializedAt WHERE u.id = :id AND u.timelineMaterializedAt IS NULL")
+    int markTimelineMaterialized(@Param("id") Long id, @Param("materializedAt") Date materializedAt);
 }
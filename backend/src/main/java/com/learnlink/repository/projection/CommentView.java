@@ -0,0 +1,23 @@
+package com.learnlink.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Read-only comment row for threads; the author is resolved separately by id.
+ */
+@Getter
+@AllArgsConstructor
+public class CommentView {
+    private final Long id;
+    private final Long postId;
+    private final Long parentCommentId;
+    private final String content;
+    private final Date createdAt;
+    private final Date updatedAt;
+    private final Long userId;
+    private final Integer depth;
+    private final String path;
+}
@@ -0,0 +1,22 @@
+package com.learnlink.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Visibility and change markers of a learning plan and its topics and resources,
+ * read in one row to build its ETag and Last-Modified date.
+ */
+@Getter
+@AllArgsConstructor
+public class LearningPlanVersionView {
+    private final Boolean isPublic;
+    private final Long creatorId;
+    private final Date updatedAt;
+    private final Date topicsUpdatedAt;
+    private final Long topicCount;
+    private final Date resourcesUpdatedAt;
+    private final Long resourceCount;
+}
@@ -0,0 +1,7 @@
+package com.learnlink.repository.projection;
+
+/**
+ * Identity of a like: one user on one post
+ */
+public record LikeKey(Long userId, Long postId) {
+}
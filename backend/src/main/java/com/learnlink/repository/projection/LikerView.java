@@ -0,0 +1,19 @@
+package com.learnlink.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * A like on a post together with the summary of the user who gave it.
+ */
+@Getter
+@AllArgsConstructor
+public class LikerView {
+    private final Long likeId;
+    private final Date likedAt;
+    private final Long userId;
+    private final String name;
+    private final String profilePicture;
+}
@@ -0,0 +1,19 @@
+package com.learnlink.repository.projection;
+
+import com.learnlink.model.Media;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Read-only media row for post listings, keyed by the owning post's id.
+ */
+@Getter
+@AllArgsConstructor
+public class MediaView {
+    private final Long postId;
+    private final Long id;
+    private final String fileName;
+    private final String fileType;
+    private final String fileUrl;
+    private final Media.MediaType type;
+}
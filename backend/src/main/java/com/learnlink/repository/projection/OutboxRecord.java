@@ -0,0 +1,9 @@
+package com.learnlink.repository.projection;
+
+import com.learnlink.model.OutboxEvent;
+
+/**
+ * A claimed outbox row
+ */
+public record OutboxRecord(Long id, OutboxEvent.Type type, String payload, int attempts) {
+}
@@ -0,0 +1,20 @@
+package com.learnlink.repository.projection;
+
+import com.learnlink.model.Post;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Engagement counters of a post, used to seed the in-memory trending scores.
+ */
+@Getter
+@AllArgsConstructor
+public class PostEngagementView {
+    private final Long id;
+    private final Post.Category category;
+    private final Date createdAt;
+    private final Integer likesCount;
+    private final Integer commentsCount;
+}
@@ -0,0 +1,17 @@
+package com.learnlink.repository.projection;
+
+import com.learnlink.model.Post;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * What a like or unlike needs back from the post row: the new counter and the
+ * fields of the {@link com.learnlink.event.PostChangedEvent} it publishes.
+ */
+@Getter
+@AllArgsConstructor
+public class PostLikesView {
+    private final Long authorId;
+    private final Post.Category category;
+    private final Integer likesCount;
+}
@@ -0,0 +1,40 @@
+package com.learnlink.repository.projection;
+
+import com.learnlink.model.Post;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Read-only row for post listings: exactly the post and author columns a
+ * {@link com.learnlink.dto.response.PostResponse} needs, selected with a JPQL
+ * constructor expression so no entity is loaded into the persistence context.
+ */
+@Getter
+@AllArgsConstructor
+public class PostListingView {
+    private final Long id;
+    private final String title;
+    private final String content;
+    private final Post.Category category;
+    private final Integer learningProgressPercent;
+    private final Long learningPlanId;
+    private final Date createdAt;
+    private final Date updatedAt;
+    private final Integer likesCount;
+    private final Integer commentsCount;
+    private final Long authorId;
+    private final String authorName;
+    private final String authorProfilePicture;
+
+    /**
+     * The same row taken from a loaded post and its author
+     */
+    public static PostListingView of(Post post) {
+        return new PostListingView(post.getId(), post.getTitle(), post.getContent(), post.getCategory(),
+                post.getLearningProgressPercent(), post.getLearningPlan() != null ? post.getLearningPlan().getId() : null,
+                post.getCreatedAt(), post.getUpdatedAt(), post.getLikesCount(), post.getCommentsCount(),
+                post.getAuthor().getId(), post.getAuthor().getName(), post.getAuthor().getProfilePicture());
+    }
+}
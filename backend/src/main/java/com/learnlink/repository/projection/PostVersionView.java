@@ -0,0 +1,24 @@
+package com.learnlink.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Everything a single post response depends on apart from the viewer's like flag,
+ * read in one row to build its ETag.
+ */
+@Getter
+@AllArgsConstructor
+public class PostVersionView {
+    private final Date updatedAt;
+    private final Integer likesCount;
+    private final Integer commentsCount;
+    private final Long mediaCount;
+    private final Long lastMediaId;
+    private final Integer learningProgressPercent;
+    private final Long learningPlanId;
+    private final String authorName;
+    private final String authorProfilePicture;
+}
@@ -0,0 +1,15 @@
+package com.learnlink.repository.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The few user columns shown next to content the user created.
+ */
+@Getter
+@AllArgsConstructor
+public class UserSummaryView {
+    private final Long id;
+    private final String name;
+    private final String profilePicture;
+}
@@ -2,32 +2,69 @@ package com.learnlink.service;
 
 import com.learnlink.dto.request.CommentRequest;
 import com.learnlink.dto.response.CommentResponse;
+import com.learnlink.event.CommentChangedEvent;
+import com.learnlink.event.PostChangedEvent;
+import com.learnlink.event.PostCommentedEvent;
+import com.learnlink.exception.BadRequestException;
 import com.learnlink.exception.ResourceNotFoundException;
 import com.learnlink.model.Comment;
-import com.learnlink.model.Notification;
+import com.learnlink.model.OutboxEvent;
 import com.learnlink.model.Post;
 import com.learnlink.model.User;
 import com.learnlink.repository.CommentRepository;
+import com.learnlink.repository.CommentThreadRepository;
 import com.learnlink.repository.PostRepository;
-import lombok.RequiredArgsConstructor;
+import com.learnlink.repository.UserRepository;
+import com.learnlink.repository.projection.CommentView;
+import com.learnlink.repository.projection.UserSummaryView;
+import com.learnlink.util.FeedCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class CommentService {
+    private static final int MAX_THREAD_PAGE_SIZE = 100;
     
     private final CommentRepository commentRepository;
+    private final CommentThreadRepository commentThreadRepository;
     private final PostRepository postRepository;
+    private final UserRepository userRepository;
     private final UserService userService;
-    private final NotificationService notificationService;
-    private final UserActivityService userActivityService;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int replyPreviewSize;
+    
+    public CommentService(
+            CommentRepository commentRepository,
+            CommentThreadRepository commentThreadRepository,
+            PostRepository postRepository,
+            UserRepository userRepository,
+            UserService userService,
+            OutboxService outboxService,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.comments.reply-preview-size:20}") int replyPreviewSize) {
+        this.commentRepository = commentRepository;
+        this.commentThreadRepository = commentThreadRepository;
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.outboxService = outboxService;
+        this.eventPublisher = eventPublisher;
+        this.replyPreviewSize = replyPreviewSize;
+    }
     
     @Transactional
     public CommentResponse createComment(Long postId, CommentRequest commentRequest, String currentUserEmail) {
@@ -50,72 +87,85 @@ public class CommentService {
                 throw new IllegalArgumentException("Parent comment does not belong to the specified post");
             }
             
-            comment.setParentComment(parentComment);
-            
-            // Create notification for parent comment author (if not the same user)
-            if (!parentComment.getUser().getId().equals(currentUser.getId())) {
-                notificationService.createNotification(
-                        parentComment.getUser(),
-                        currentUser,
-                        Notification.NotificationType.COMMENT,
-                        currentUser.getName() + " replied to your comment",
-                        "comment",
-                        parentComment.getId()
-                );
+            if (parentComment.getDepth() >= Comment.MAX_DEPTH) {
+                throw new BadRequestException("Replies cannot be nested more than " + Comment.MAX_DEPTH + " levels deep");
             }
-        } else {
-            // Create notification for post author (if not the same user)
-            if (!post.getAuthor().getId().equals(currentUser.getId())) {
-                notificationService.createNotification(
-                        post.getAuthor(),
-                        currentUser,
-                        Notification.NotificationType.COMMENT,
-                        currentUser.getName() + " commented on your post",
-                        "post",
-                        post.getId()
-                );
-            }
-        }        
+            comment.setParentComment(parentComment);
+            comment.setDepth(parentComment.getDepth() + 1);
+        }
+        
         Comment savedComment = commentRepository.save(comment);
+        // The path ends with the comment's own id, so it is only known once the row exists
+        savedComment.setPath(Comment.childPath(
+                savedComment.getParentComment() != null ? savedComment.getParentComment().getPath() : null,
+                savedComment.getId()));
+        postRepository.incrementCommentsCount(postId, 1);
+        eventPublisher.publishEvent(PostChangedEvent.of(post, PostChangedEvent.ChangeType.COMMENTED));
         
-        // Record post comment activity
-        userActivityService.recordPostComment(currentUser, post, savedComment);
+        // Activity and notification are recorded in the outbox and written off the request thread
+        outboxService.enqueue(OutboxEvent.Type.POST_COMMENTED,
+                new PostCommentedEvent(currentUser.getId(), postId, savedComment.getId()));
         
-        return mapToCommentResponse(savedComment);
+        CommentResponse response = mapToCommentResponse(savedComment);
+        eventPublisher.publishEvent(new CommentChangedEvent(postId, savedComment.getId(),
+                CommentChangedEvent.ChangeType.CREATED, response));
+        return response;
     }
     
+    /**
+     * A page of root comments with the first {@code app.comments.reply-preview-size} replies of each,
+     * in three queries: roots, replies of all roots (windowed), and their authors
+     */
+    @Transactional(readOnly = true)
     public Page<CommentResponse> getCommentsByPost(Long postId, Pageable pageable) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
-        
-        Page<Comment> rootComments = commentRepository.findByPostAndParentCommentIsNullOrderByCreatedAtDesc(post, pageable);
+        if (!postRepository.existsById(postId)) {
+            throw new ResourceNotFoundException("Post", "id", postId);
+        }
         
-        return rootComments.map(comment -> {
-            CommentResponse response = mapToCommentResponse(comment);
-            List<Comment> replies = commentRepository.findByParentCommentIdOrderByCreatedAtAsc(comment.getId());
-            response.setReplies(replies.stream()
-                    .map(this::mapToCommentResponse)
-                    .collect(Collectors.toList()));
-            return response;
-        });
+        Page<CommentView> roots = commentRepository.findRootViewsByPostId(postId,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        List<CommentResponse> threads = buildThreads(roots.getContent());
+        return new PageImpl<>(threads, roots.getPageable(), roots.getTotalElements());
     }
     
-    public CommentResponse getComment(Long commentId) {
-        Comment comment = commentRepository.findById(commentId)
+    /**
+     * A comment and its replies at any depth, flattened in display order (depth-first, oldest reply first)
+     * and read with one range scan over the materialized path. Replies more than {@code maxDepth} levels
+     * below the comment are left out; the cursor is the id of the last comment of the previous page.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CommentResponse> getThread(Long commentId, String cursor, int size, int maxDepth) {
+        Comment root = commentRepository.findById(commentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Comment", "id", commentId));
         
-        CommentResponse response = mapToCommentResponse(comment);
+        String afterPath = "";
+        if (cursor != null && !cursor.isBlank()) {
+            afterPath = commentRepository.findPathById(parseCommentCursor(cursor))
+                    .filter(path -> path.startsWith(root.getPath()))
+                    .orElseThrow(() -> new BadRequestException("Invalid thread cursor"));
+        }
         
-        if (comment.getParentComment() == null) {
-            List<Comment> replies = commentRepository.findByParentCommentIdOrderByCreatedAtAsc(comment.getId());
-            response.setReplies(replies.stream()
-                    .map(this::mapToCommentResponse)
-                    .collect(Collectors.toList()));
-        } else {
-            response.setReplies(new ArrayList<>());
+        Slice<CommentView> comments = commentRepository.findSubtree(root.getPath(), afterPath,
+                root.getDepth() + Math.max(0, maxDepth),
+                PageRequest.of(0, Math.max(1, Math.min(size, MAX_THREAD_PAGE_SIZE))));
+        Map<Long, CommentResponse.UserSummaryResponse> authors = findAuthors(comments.getContent());
+        return comments.map(comment -> mapToCommentResponse(comment, authors));
+    }
+    
+    private Long parseCommentCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid thread cursor", e);
         }
+    }
+    
+    @Transactional(readOnly = true)
+    public CommentResponse getComment(Long commentId) {
+        Comment comment = commentRepository.findById(commentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Comment", "id", commentId));
         
-        return response;
+        return withReplies(comment, mapToCommentResponse(comment));
     }
     
     @Transactional
@@ -132,17 +182,9 @@ public class CommentService {
         comment.setContent(commentRequest.getContent());
         Comment updatedComment = commentRepository.save(comment);
         
-        CommentResponse response = mapToCommentResponse(updatedComment);
-        
-        if (comment.getParentComment() == null) {
-            List<Comment> replies = commentRepository.findByParentCommentIdOrderByCreatedAtAsc(comment.getId());
-            response.setReplies(replies.stream()
-                    .map(this::mapToCommentResponse)
-                    .collect(Collectors.toList()));
-        } else {
-            response.setReplies(new ArrayList<>());
-        }
-        
+        CommentResponse response = withReplies(updatedComment, mapToCommentResponse(updatedComment));
+        eventPublisher.publishEvent(new CommentChangedEvent(response.getPostId(), commentId,
+                CommentChangedEvent.ChangeType.UPDATED, response));
         return response;
     }
     
@@ -158,26 +200,123 @@ public class CommentService {
             throw new IllegalArgumentException("You don't have permission to delete this comment");
         }
         
-        commentRepository.delete(comment);
+        // Replies go with the comment; the whole subtree is one range of the materialized path
+        Long postId = comment.getPost().getId();
+        PostChangedEvent postChanged = PostChangedEvent.of(comment.getPost(), PostChangedEvent.ChangeType.COMMENT_DELETED);
+        int deleted = commentRepository.deleteSubtree(comment.getPath());
+        postRepository.incrementCommentsCount(postId, -deleted);
+        eventPublisher.publishEvent(postChanged);
+        eventPublisher.publishEvent(new CommentChangedEvent(postId, commentId,
+                CommentChangedEvent.ChangeType.DELETED, null));
     }
     
     @Transactional
     public void deleteAllCommentsByPost(Long postId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+        PostChangedEvent postChanged = PostChangedEvent.of(post, PostChangedEvent.ChangeType.COMMENT_DELETED);
         
-        // Find all comments associated with this post
-        List<Comment> commentsToDelete = commentRepository.findByPost(post);
-        
-        // Delete all the comments
-        commentRepository.deleteAll(commentsToDelete);
+        // One set-based DELETE, deepest replies first
+        commentRepository.deleteAllByPostId(postId);
+        postRepository.resetCommentsCount(postId);
+        eventPublisher.publishEvent(postChanged);
     }
     
     public long countCommentsByPost(Long postId) {
-        Post post = postRepository.findById(postId)
+        return postRepository.findCommentsCountById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+    }
+    
+    /**
+     * One page of a comment's direct replies, oldest first, continuing after the cursor of the previous page
+     */
+    @Transactional(readOnly = true)
+    public Slice<CommentResponse> getReplies(Long commentId, String cursor, int size) {
+        if (!commentRepository.existsById(commentId)) {
+            throw new ResourceNotFoundException("Comment", "id", commentId);
+        }
+        return findReplyPage(commentId, FeedCursor.decode(cursor), Math.max(1, Math.min(size, MAX_THREAD_PAGE_SIZE)));
+    }
+    
+    /**
+     * Attach the first page of direct replies, and the cursor of the next page if there is one.
+     * Costs one bounded query however large the thread is.
+     */
+    private CommentResponse withReplies(Comment comment, CommentResponse response) {
+        Slice<CommentResponse> replies = findReplyPage(comment.getId(), null, replyPreviewSize);
+        List<CommentResponse> page = new ArrayList<>(replies.getContent());
+        response.setReplies(page);
+        response.setRepliesCursor(replies.hasNext() ? replyCursor(page.get(page.size() - 1)) : null);
+        return response;
+    }
+    
+    private Slice<CommentResponse> findReplyPage(Long commentId, FeedCursor position, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<CommentView> replies = position == null
+                ? commentRepository.findReplies(commentId, pageable)
+                : commentRepository.findRepliesAfter(commentId, position.getCreatedAt(), position.getId(), pageable);
+        Map<Long, CommentResponse.UserSummaryResponse> authors = findAuthors(replies.getContent());
+        return replies.map(reply -> mapToCommentResponse(reply, authors));
+    }
+    
+    public static String replyCursor(CommentResponse reply) {
+        return FeedCursor.encode(reply.getCreatedAt(), reply.getId());
+    }
+    
+    /**
+     * Stitch the reply previews and authors of a page of roots together in memory
+     */
+    private List<CommentResponse> buildThreads(List<CommentView> roots) {
+        if (roots.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        CommentThreadRepository.Replies replies = commentThreadRepository.findFirstReplies(
+                roots.stream().map(CommentView::getId).collect(Collectors.toList()), replyPreviewSize);
         
-        return commentRepository.countByPost(post);
+        List<CommentView> all = new ArrayList<>(roots);
+        all.addAll(replies.replies());
+        Map<Long, CommentResponse.UserSummaryResponse> authors = findAuthors(all);
+        
+        Map<Long, List<CommentResponse>> repliesByRoot = replies.replies().stream()
+                .collect(Collectors.groupingBy(CommentView::getParentCommentId,
+                        Collectors.mapping(reply -> mapToCommentResponse(reply, authors), Collectors.toList())));
+        
+        return roots.stream()
+                .map(root -> {
+                    CommentResponse response = mapToCommentResponse(root, authors);
+                    response.setReplies(repliesByRoot.getOrDefault(root.getId(), new ArrayList<>()));
+                    response.setReplyCount(replies.replyCounts().getOrDefault(root.getId(), 0));
+                    return response;
+                })
+                .collect(Collectors.toList());
+    }
+    
+    private Map<Long, CommentResponse.UserSummaryResponse> findAuthors(List<CommentView> comments) {
+        if (comments.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> userIds = comments.stream().map(CommentView::getUserId).collect(Collectors.toSet());
+        return userRepository.findSummariesByIdIn(userIds).stream()
+                .collect(Collectors.toMap(UserSummaryView::getId, user -> CommentResponse.UserSummaryResponse.builder()
+                        .id(user.getId())
+                        .name(user.getName())
+                        .profilePicture(user.getProfilePicture())
+                        .build()));
+    }
+    
+    private CommentResponse mapToCommentResponse(CommentView comment, Map<Long, CommentResponse.UserSummaryResponse> authors) {
+        return CommentResponse.builder()
+                .id(comment.getId())
+                .content(comment.getContent())
+                .user(authors.get(comment.getUserId()))
+                .postId(comment.getPostId())
+                .createdAt(comment.getCreatedAt())
+                .updatedAt(comment.getUpdatedAt())
+                .parentCommentId(comment.getParentCommentId())
+                .depth(comment.getDepth())
+                .replies(new ArrayList<>())
+                .build();
     }
     
     private CommentResponse mapToCommentResponse(Comment comment) {
@@ -195,6 +334,7 @@ public class CommentService {
                 .createdAt(comment.getCreatedAt())
                 .updatedAt(comment.getUpdatedAt())
                 .parentCommentId(comment.getParentComment() != null ? comment.getParentComment().getId() : null)
+                .depth(comment.getDepth() != null ? comment.getDepth() : 0)
                 .replies(new ArrayList<>())
                 .build();
     }
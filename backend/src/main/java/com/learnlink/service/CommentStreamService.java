@@ -0,0 +1,69 @@
+package com.learnlink.service;
+
+import com.learnlink.event.CommentChangedEvent;
+import com.learnlink.exception.ResourceNotFoundException;
+import com.learnlink.repository.PostRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live comment updates per post over server-sent events, so clients in a study session see new,
+ * edited and deleted comments without polling the comment page. Events are pushed only after
+ * the change has committed.
+ */
+@Service
+public class CommentStreamService {
+
+    private final PostRepository postRepository;
+    private final SseHub<Long> hub;
+    private final AtomicLong eventSequence = new AtomicLong();
+
+    public CommentStreamService(
+            PostRepository postRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.comments.stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${app.comments.stream.queue-capacity:64}") int queueCapacity,
+            @Value("${app.comments.stream.max-dropped-events:256}") int maxDroppedEvents,
+            @Value("${app.comments.stream.max-subscribers-per-post:10000}") int maxSubscribersPerPost,
+            @Value("${app.comments.stream.max-subscribers:50000}") int maxSubscribers,
+            @Value("${app.comments.stream.sender-threads:4}") int senderThreads,
+            @Value("${app.comments.stream.heartbeat-seconds:20}") long heartbeatSeconds,
+            @Value("${app.comments.stream.send-timeout-ms:5000}") long sendTimeoutMillis) {
+        this.postRepository = postRepository;
+        this.hub = new SseHub<>("comments", new SseHub.Settings(timeoutMillis, queueCapacity, maxDroppedEvents,
+                maxSubscribersPerPost, maxSubscribers, senderThreads, heartbeatSeconds, sendTimeoutMillis), meterRegistry);
+    }
+
+    /**
+     * Open a live stream of a post's comments; null when there are already too many listeners
+     */
+    public SseEmitter subscribe(Long postId) {
+        if (!postRepository.existsById(postId)) {
+            throw new ResourceNotFoundException("Post", "id", postId);
+        }
+        return hub.subscribe(postId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentChanged(CommentChangedEvent event) {
+        Object data = event.getComment() != null
+                ? event.getComment()
+                : Map.of("id", event.getCommentId(), "postId", event.getPostId());
+        hub.publish(event.getPostId(), new SseHub.Event(
+                String.valueOf(eventSequence.incrementAndGet()),
+                "comment-" + event.getType().name().toLowerCase(),
+                data));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hub.shutdown();
+    }
+}
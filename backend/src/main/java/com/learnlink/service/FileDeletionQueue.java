@@ -0,0 +1,136 @@
+package com.learnlink.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes stored files off the request thread.
+ * Files are queued only once the transaction that dropped their rows commits, so a rolled
+ * back delete never loses a file. Failed deletions are retried with exponential backoff
+ * up to {@code app.file.deletion-max-attempts} times.
+ */
+@Service
+@Slf4j
+public class FileDeletionQueue {
+
+    private final FileStorageService fileStorageService;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+
+    private final DelayQueue<PendingDeletion> pending = new DelayQueue<>();
+    private final Counter deleted;
+    private final Counter abandoned;
+
+    public FileDeletionQueue(
+            FileStorageService fileStorageService,
+            MeterRegistry meterRegistry,
+            @Value("${app.file.deletion-max-attempts:5}") int maxAttempts,
+            @Value("${app.file.deletion-initial-backoff-ms:2000}") long initialBackoffMillis) {
+        this.fileStorageService = fileStorageService;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+
+        Gauge.builder("files.deletion.pending", pending, DelayQueue::size)
+                .description("Stored files waiting to be deleted")
+                .register(meterRegistry);
+        this.deleted = Counter.builder("files.deletion.completed")
+                .description("Stored files deleted by the background queue")
+                .register(meterRegistry);
+        this.abandoned = Counter.builder("files.deletion.abandoned")
+                .description("Stored files left behind after exhausting all retries")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue files for deletion after the current transaction commits, or right away outside one
+     */
+    public void enqueueAfterCommit(Collection<String> fileNames) {
+        List<String> toDelete = fileNames.stream()
+                .filter(fileName -> fileName != null && !fileName.isBlank())
+                .toList();
+        if (toDelete.isEmpty()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(toDelete);
+                }
+            });
+        } else {
+            enqueue(toDelete);
+        }
+    }
+
+    /**
+     * Attempt every deletion whose backoff has elapsed
+     */
+    @Scheduled(fixedDelayString = "${app.file.deletion-poll-interval-ms:1000}")
+    public void processPending() {
+        List<PendingDeletion> due = new ArrayList<>();
+        pending.drainTo(due);
+
+        for (PendingDeletion deletion : due) {
+            if (fileStorageService.tryDelete(deletion.fileName())) {
+                deleted.increment();
+            } else if (deletion.attempt() + 1 >= maxAttempts) {
+                abandoned.increment();
+                log.error("Giving up deleting file {} after {} attempts", deletion.fileName(), maxAttempts);
+            } else {
+                long backoff = initialBackoffMillis << deletion.attempt();
+                pending.add(new PendingDeletion(deletion.fileName(), deletion.attempt() + 1,
+                        System.currentTimeMillis() + backoff));
+                log.warn("Could not delete file {}, retrying in {} ms", deletion.fileName(), backoff);
+            }
+        }
+    }
+
+    /**
+     * Make one last attempt at everything still queued, ignoring backoff, so files are not orphaned on shutdown
+     */
+    @PreDestroy
+    public void drainOnShutdown() {
+        List<PendingDeletion> remaining = new ArrayList<>(pending);
+        pending.clear();
+        remaining.forEach(deletion -> {
+            if (!fileStorageService.tryDelete(deletion.fileName())) {
+                log.error("File {} was not deleted before shutdown", deletion.fileName());
+            }
+        });
+    }
+
+    private void enqueue(List<String> fileNames) {
+        long now = System.currentTimeMillis();
+        fileNames.forEach(fileName -> pending.add(new PendingDeletion(fileName, 0, now)));
+    }
+
+    private record PendingDeletion(String fileName, int attempt, long dueAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+}
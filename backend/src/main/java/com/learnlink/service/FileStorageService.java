@@ -1,6 +1,8 @@
 package com.learnlink.service;
 
+import com.learnlink.exception.BadRequestException;
 import com.learnlink.exception.FileStorageException;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
@@ -9,16 +11,29 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.UUID;
 
 @Service
+@Slf4j
 public class FileStorageService {
 
+    /**
+     * Names this service gives stored files: a random UUID and the original extension
+     */
+    public static final String STORED_FILE_NAME_PATTERN =
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}(\\.[A-Za-z0-9]{1,16})?";
+
     private final Path fileStorageLocation;
 
     public FileStorageService(@Value("${app.file.upload-dir:./uploads}") String uploadDir) {
@@ -33,10 +48,7 @@ public class FileStorageService {
     }
 
     public String storeFile(MultipartFile file) {
-        // Generate unique filename
-        String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-        String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        String filename = UUID.randomUUID().toString() + fileExtension;
+        String filename = generateFileName(file);
 
         try {
             // Copy file to the target location
@@ -49,6 +61,42 @@ public class FileStorageService {
         }
     }
     
+    /**
+     * Stream a file to storage, hashing it and enforcing the size limit in the same pass.
+     * A file that turns out to be too large is removed again before the exception is thrown.
+     */
+    public StoredFile storeFile(MultipartFile file, long maxBytes) {
+        if (file.getSize() > maxBytes) {
+            throw new BadRequestException("File " + file.getOriginalFilename() + " exceeds the maximum size of " + maxBytes + " bytes");
+        }
+        
+        String filename = generateFileName(file);
+        Path targetLocation = this.fileStorageLocation.resolve(filename);
+        MessageDigest digest = newSha256();
+        long size = 0;
+        
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+             OutputStream out = Files.newOutputStream(targetLocation)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new BadRequestException("File " + file.getOriginalFilename() + " exceeds the maximum size of " + maxBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException ex) {
+            tryDelete(filename);
+            throw new FileStorageException("Could not store file " + filename, ex);
+        } catch (RuntimeException ex) {
+            tryDelete(filename);
+            throw ex;
+        }
+        
+        return new StoredFile(filename, file.getContentType(), size, HexFormat.of().formatHex(digest.digest()));
+    }
+    
     public String storeResourceFile(MultipartFile file) {
         // Store the file and get the filename
         String filename = storeFile(file);
@@ -61,7 +109,7 @@ public class FileStorageService {
         try {
             Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
             Resource resource = new UrlResource(filePath.toUri());
-            if (resource.exists()) {
+            if (isStoredFile(filePath) && resource.exists()) {
                 return resource;
             } else {
                 throw new FileStorageException("File not found " + fileName);
@@ -70,21 +118,60 @@ public class FileStorageService {
             throw new FileStorageException("File not found " + fileName, ex);
         }
     }
-      public void deleteFile(String fileName) {
+    public void deleteFile(String fileName) {
+        try {
+            deleteStoredFile(fileName);
+        } catch (IOException ex) {
+            // Log the error but don't throw exception to avoid breaking deletion process
+            log.warn("Could not delete file {}", fileName, ex);
+        }
+    }
+    
+    /**
+     * Delete a stored file, returning false only when the deletion failed and is worth retrying.
+     * A blank name or a file that is already gone counts as deleted.
+     */
+    public boolean tryDelete(String fileName) {
+        try {
+            deleteStoredFile(fileName);
+            return true;
+        } catch (IOException ex) {
+            log.debug("Deleting file {} failed", fileName, ex);
+            return false;
+        }
+    }
+    
+    private void deleteStoredFile(String fileName) throws IOException {
         if (fileName == null || fileName.trim().isEmpty()) {
-            // Skip if filename is null or empty
             return;
         }
         
+        Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
+        if (!isStoredFile(filePath)) {
+            // Retrying would not help; the name points outside the upload directory
+            log.warn("Refusing to delete {}, which is outside the upload directory", fileName);
+            return;
+        }
+        
+        Files.deleteIfExists(filePath);
+    }
+    
+    private String generateFileName(MultipartFile file) {
+        // Generate unique filename
+        String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
+        String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        return UUID.randomUUID().toString() + fileExtension;
+    }
+    
+    private boolean isStoredFile(Path filePath) {
+        return filePath.startsWith(this.fileStorageLocation) && !filePath.equals(this.fileStorageLocation);
+    }
+    
+    private MessageDigest newSha256() {
         try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            boolean deleted = Files.deleteIfExists(filePath);
-            if (!deleted) {
-                System.out.println("File " + fileName + " does not exist, skipping deletion.");
-            }
-        } catch (IOException ex) {
-            // Log the error but don't throw exception to avoid breaking deletion process
-            System.err.println("Could not delete file " + fileName + ": " + ex.getMessage());
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
         }
     }
     
@@ -92,4 +179,10 @@ public class FileStorageService {
     public Path getFileStorageLocation() {
         return this.fileStorageLocation;
     }
+    
+    /**
+     * A file written to storage, with the size and SHA-256 measured while streaming it
+     */
+    public record StoredFile(String fileName, String contentType, long size, String sha256) {
+    }
 }
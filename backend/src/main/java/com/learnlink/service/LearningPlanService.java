@@ -14,6 +14,9 @@ import com.learnlink.repository.LearningPlanRepository;
 import com.learnlink.repository.ResourceRepository;
 import com.learnlink.repository.TopicRepository;
 import com.learnlink.repository.UserProgressRepository;
+import com.learnlink.repository.projection.LearningPlanVersionView;
+import com.learnlink.util.EntityTag;
+import com.learnlink.util.ResourceVersion;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -233,6 +236,40 @@ public class LearningPlanService {
                 .build();
     }
     
+    /**
+     * ETag and Last-Modified of a learning plan as seen by the given user, computed without mapping the plan.
+     * Applies the same visibility rule as {@link #getLearningPlanById} so a 304 never leaks a private plan.
+     */
+    @Transactional(readOnly = true)
+    public ResourceVersion getLearningPlanVersion(Long planId, User currentUser) {
+        LearningPlanVersionView version = learningPlanRepository.findVersionById(planId)
+                .orElseThrow(() -> new ResourceNotFoundException("LearningPlan", "id", planId));
+        
+        if (!Boolean.TRUE.equals(version.getIsPublic()) && !version.getCreatorId().equals(currentUser.getId())) {
+            throw new IllegalArgumentException("You don't have permission to view this learning plan");
+        }
+        
+        Optional<UserProgress> progress = userProgressRepository.findByUserIdAndLearningPlanId(currentUser.getId(), planId);
+        Date progressUpdatedAt = progress.map(UserProgress::getLastUpdated).orElse(null);
+        
+        long lastModified = latest(version.getUpdatedAt(), version.getTopicsUpdatedAt(),
+                version.getResourcesUpdatedAt(), progressUpdatedAt);
+        String etag = EntityTag.weak("plan", planId, lastModified, version.getIsPublic(),
+                version.getTopicCount(), version.getResourceCount(),
+                progress.map(UserProgress::getCompletionPercentage).orElse(null));
+        return new ResourceVersion(etag, lastModified);
+    }
+    
+    private long latest(Date... dates) {
+        long latest = -1;
+        for (Date date : dates) {
+            if (date != null && date.getTime() > latest) {
+                latest = date.getTime();
+            }
+        }
+        return latest;
+    }
+    
     /**
      * Gets a learning plan by ID, including the user's progress if the user is not the creator
      */
@@ -0,0 +1,134 @@
+package com.learnlink.service;
+
+import com.learnlink.event.PostChangedEvent;
+import com.learnlink.repository.PostRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copies a user's learning plan progress onto the posts linked to that plan.
+ * Progress changes are debounced per (plan, user): rapid topic or resource toggles only
+ * replace the pending value, and one set-based UPDATE is issued once the user has been
+ * idle for {@code app.posts.progress-debounce-ms}, or at the latest after
+ * {@code app.posts.progress-max-delay-ms}.
+ */
+@Service
+@Slf4j
+public class LearningProgressPropagator {
+
+    private final PostRepository postRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final long debounceMillis;
+    private final long maxDelayMillis;
+
+    private final Map<ProgressKey, PendingProgress> pending = new ConcurrentHashMap<>();
+
+    public LearningProgressPropagator(
+            PostRepository postRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.posts.progress-debounce-ms:2000}") long debounceMillis,
+            @Value("${app.posts.progress-max-delay-ms:10000}") long maxDelayMillis) {
+        this.postRepository = postRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.debounceMillis = debounceMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Schedule propagation of a new progress value, once the current transaction (if any) commits
+     */
+    public void submit(Long learningPlanId, Long userId, Integer progressPercent) {
+        ProgressKey key = new ProgressKey(learningPlanId, userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule(key, progressPercent);
+                }
+            });
+        } else {
+            schedule(key, progressPercent);
+        }
+    }
+
+    /**
+     * Write a progress value in the caller's transaction, superseding any pending value for the same plan and user
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int propagateNow(Long learningPlanId, Long userId, Integer progressPercent) {
+        ProgressKey key = new ProgressKey(learningPlanId, userId);
+        pending.remove(key);
+        return update(key, progressPercent);
+    }
+
+    /**
+     * Write every pending value whose debounce window has closed
+     */
+    @Scheduled(fixedDelayString = "${app.posts.progress-flush-interval-ms:500}")
+    public void flushDue() {
+        long now = System.currentTimeMillis();
+        pending.forEach((key, progress) -> {
+            if (progress.dueAt() <= now && pending.remove(key, progress)) {
+                write(key, progress.percent());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        pending.forEach((key, progress) -> {
+            if (pending.remove(key, progress)) {
+                write(key, progress.percent());
+            }
+        });
+    }
+
+    private void schedule(ProgressKey key, Integer percent) {
+        long now = System.currentTimeMillis();
+        pending.merge(key, new PendingProgress(percent, now, now + debounceMillis),
+                (previous, latest) -> new PendingProgress(percent, previous.firstSubmittedAt(),
+                        Math.min(now + debounceMillis, previous.firstSubmittedAt() + maxDelayMillis)));
+    }
+
+    private void write(ProgressKey key, Integer percent) {
+        try {
+            int updated = transactionTemplate.execute(status -> update(key, percent));
+            log.debug("Propagated {}% progress of plan {} to {} posts of user {}",
+                    percent, key.learningPlanId(), updated, key.userId());
+        } catch (Exception e) {
+            log.error("Failed to propagate progress of plan {} for user {}: {}",
+                    key.learningPlanId(), key.userId(), e.getMessage(), e);
+        }
+    }
+
+    private int update(ProgressKey key, Integer percent) {
+        int rows = postRepository.updateLearningProgress(key.learningPlanId(), key.userId(), percent);
+        if (rows > 0) {
+            eventPublisher.publishEvent(PostChangedEvent.ofAuthor(key.userId(),
+                    PostChangedEvent.ChangeType.LEARNING_PROGRESS_UPDATED));
+        }
+        return rows;
+    }
+
+    private record ProgressKey(Long learningPlanId, Long userId) {
+    }
+
+    private record PendingProgress(Integer percent, long firstSubmittedAt, long dueAt) {
+    }
+}
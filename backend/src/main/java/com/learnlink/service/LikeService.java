@@ -1,95 +1,187 @@
 package com.learnlink.service;
 
+import com.learnlink.dto.response.LikerResponse;
+import com.learnlink.event.PostChangedEvent;
+import com.learnlink.event.PostLikedEvent;
 import com.learnlink.exception.ResourceNotFoundException;
-import com.learnlink.model.Like;
-import com.learnlink.model.Notification;
-import com.learnlink.model.Post;
+import com.learnlink.model.OutboxEvent;
 import com.learnlink.model.User;
 import com.learnlink.repository.LikeRepository;
 import com.learnlink.repository.PostRepository;
+import com.learnlink.repository.projection.LikerView;
+import com.learnlink.repository.projection.PostLikesView;
+import com.learnlink.util.FeedCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.Date;
+import java.util.OptionalLong;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class LikeService {
+    private static final int MAX_LIKERS_PAGE_SIZE = 100;
     
     private final LikeRepository likeRepository;
     private final PostRepository postRepository;
     private final UserService userService;
-    private final NotificationService notificationService;
-    private final UserActivityService userActivityService;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final LikedPostIndex likedPostIndex;
     
     @Transactional
-    public boolean toggleLike(Long postId, String currentUserEmail) {
-        User currentUser = userService.getCurrentUser(currentUserEmail);
-        
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
-        
-        // Check if user already liked the post
-        boolean alreadyLiked = likeRepository.existsByUserAndPost(currentUser, post);
+    public LikeState toggleLike(Long postId, String currentUserEmail) {
+        return toggleLike(postId, userService.getCurrentUser(currentUserEmail));
+    }
+    
+    /**
+     * Toggle the user's like on a post. With write-behind enabled the toggle is only buffered
+     * and written by {@link LikeWriteBehindFlusher}; reads include it in the meantime.
+     */
+    @Transactional
+    public LikeState toggleLike(Long postId, User currentUser) {
+        if (likeWriteBuffer.isEnabled()) {
+            boolean liked = likeWriteBuffer.toggle(currentUser.getId(), postId);
+            return new LikeState(liked, countLikes(postId));
+        }
         
-        if (alreadyLiked) {
-            // Unlike the post
-            likeRepository.deleteByUserAndPost(currentUser, post);
-            return false;
-        } else {
-            // Like the post
-            Like like = Like.builder()
-                    .user(currentUser)
-                    .post(post)
-                    .build();            
-            likeRepository.save(like);
-            
-            // Record post like activity
-            userActivityService.recordPostLike(currentUser, post);
-            
-            // Create notification for post author (if not the same user)
-            if (!post.getAuthor().getId().equals(currentUser.getId())) {
-                try {
-                    // Fix: Use the enum value instead of a string
-                    notificationService.createNotification(
-                            post.getAuthor(),
-                            currentUser,
-                            Notification.NotificationType.LIKE,
-                            currentUser.getName() + " liked your post",
-                            "post",
-                            post.getId()
-                    );
-                } catch (Exception e) {
-                    // Log error but don't fail the like operation
-                    System.err.println("Failed to create notification: " + e.getMessage());
-                }
-            }
-            
-            return true;
+        // Try the unlike first; if there was nothing to remove the post ends up liked
+        OptionalLong unliked = unlikeDirect(postId, currentUser);
+        if (unliked.isPresent()) {
+            return new LikeState(false, unliked.getAsLong());
         }
+        return new LikeState(true, likeDirect(postId, currentUser));
     }
     
-    public long countLikes(Long postId) {
-        Post post = postRepository.findById(postId)
+    /**
+     * Like a post; liking an already liked post changes nothing
+     */
+    @Transactional
+    public LikeState like(Long postId, User currentUser) {
+        if (likeWriteBuffer.isEnabled()) {
+            likeWriteBuffer.set(currentUser.getId(), postId, true);
+            return new LikeState(true, countLikes(postId));
+        }
+        return new LikeState(true, likeDirect(postId, currentUser));
+    }
+    
+    /**
+     * Remove a like; unliking a post that is not liked changes nothing
+     */
+    @Transactional
+    public LikeState unlike(Long postId, User currentUser) {
+        if (likeWriteBuffer.isEnabled()) {
+            likeWriteBuffer.set(currentUser.getId(), postId, false);
+            return new LikeState(false, countLikes(postId));
+        }
+        OptionalLong unliked = unlikeDirect(postId, currentUser);
+        // countLikes also reports a missing post
+        return new LikeState(false, unliked.isPresent() ? unliked.getAsLong() : countLikes(postId));
+    }
+    
+    /**
+     * Insert the like with a single statement and only run the side effects when a row was added.
+     * The activity and the author's notification are recorded in the outbox, not written here.
+     * Returns the post's like count afterwards, read together with the event fields in one narrow query.
+     */
+    private long likeDirect(Long postId, User currentUser) {
+        if (likeRepository.insertIfAbsent(currentUser.getId(), postId, new Date()) == 0) {
+            // Already liked, or the post does not exist
+            return countLikes(postId);
+        }
+        
+        postRepository.incrementLikesCount(postId, 1);
+        PostLikesView post = postRepository.findLikesViewById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+        likedPostIndex.recordAfterCommit(currentUser.getId(), postId, true);
+        eventPublisher.publishEvent(new PostChangedEvent(postId, post.getAuthorId(), post.getCategory(),
+                PostChangedEvent.ChangeType.LIKED));
+        outboxService.enqueue(OutboxEvent.Type.POST_LIKED, new PostLikedEvent(currentUser.getId(), postId));
+        return post.getLikesCount();
+    }
+    
+    /**
+     * Delete the like with a single statement; returns the post's like count afterwards, or nothing when there was no like
+     */
+    private OptionalLong unlikeDirect(Long postId, User currentUser) {
+        if (likeRepository.deleteByUserIdAndPostId(currentUser.getId(), postId) == 0) {
+            return OptionalLong.empty();
+        }
         
-        return likeRepository.countByPost(post);
+        postRepository.incrementLikesCount(postId, -1);
+        likedPostIndex.recordAfterCommit(currentUser.getId(), postId, false);
+        PostLikesView post = postRepository.findLikesViewById(postId)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+        eventPublisher.publishEvent(new PostChangedEvent(postId, post.getAuthorId(), post.getCategory(),
+                PostChangedEvent.ChangeType.UNLIKED));
+        return OptionalLong.of(post.getLikesCount());
+    }
+    
+    public long countLikes(Long postId) {
+        return postRepository.findLikesCountById(postId)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId))
+                + likeWriteBuffer.pendingDelta(postId);
     }
     
     public boolean hasUserLiked(Long postId, String currentUserEmail) {
         User currentUser = userService.getCurrentUser(currentUserEmail);
         
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+        if (!postRepository.existsById(postId)) {
+            throw new ResourceNotFoundException("Post", "id", postId);
+        }
         
-        return likeRepository.existsByUserAndPost(currentUser, post);
+        Boolean pending = likeWriteBuffer.pendingLiked(currentUser.getId(), postId);
+        return pending != null ? pending : likedPostIndex.isLiked(currentUser.getId(), postId);
     }
     
-    public List<Like> getLikes(Long postId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+    /**
+     * One page of the users who liked a post, most recent like first
+     */
+    @Transactional(readOnly = true)
+    public Slice<LikerResponse> getLikers(Long postId, String cursor, int size) {
+        FeedCursor position = FeedCursor.decode(cursor);
+        Pageable pageable = PageRequest.of(0, Math.max(1, Math.min(size, MAX_LIKERS_PAGE_SIZE)));
+        
+        Slice<LikerView> likers = position == null
+                ? likeRepository.findLikers(postId, pageable)
+                : likeRepository.findLikersAfter(postId, position.getCreatedAt(), position.getId(), pageable);
+        if (likers.isEmpty() && position == null && !postRepository.existsById(postId)) {
+            throw new ResourceNotFoundException("Post", "id", postId);
+        }
         
-        return likeRepository.findByPost(post);
+        return likers.map(liker -> LikerResponse.builder()
+                .likeId(liker.getLikeId())
+                .userId(liker.getUserId())
+                .name(liker.getName())
+                .profilePicture(liker.getProfilePicture())
+                .likedAt(liker.getLikedAt())
+                .build());
+    }
+    
+    /**
+     * Pass the id of every user who liked a post to the consumer, streaming rows from the database
+     */
+    @Transactional(readOnly = true)
+    public void exportLikerIds(Long postId, LongConsumer consumer) {
+        if (!postRepository.existsById(postId)) {
+            throw new ResourceNotFoundException("Post", "id", postId);
+        }
+        try (Stream<Long> userIds = likeRepository.streamUserIdsByPostId(postId)) {
+            userIds.forEach(consumer::accept);
+        }
+    }
+    
+    /**
+     * A post's like state after a like request: whether the user now likes it, and its like count
+     */
+    public record LikeState(boolean liked, long likesCount) {
     }
 }
@@ -0,0 +1,182 @@
+package com.learnlink.service;
+
+import com.learnlink.event.PostChangedEvent;
+import com.learnlink.event.PostLikedEvent;
+import com.learnlink.model.OutboxEvent;
+import com.learnlink.model.Post;
+import com.learnlink.repository.LikeBatchRepository;
+import com.learnlink.repository.PostRepository;
+import com.learnlink.repository.projection.LikeKey;
+import com.learnlink.service.LikeWriteBuffer.PendingLike;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the intents collected by {@link LikeWriteBuffer} to the database.
+ * Every flush applies the whole buffer in one transaction: one batch of inserts, one batch of
+ * deletes, one counter update per touched post, and outbox events for the activity and notification
+ * side effects of the likes that were really inserted. A failed flush puts its intents back into the buffer;
+ * on shutdown the buffer is flushed until it is empty.
+ */
+@Service
+@Slf4j
+public class LikeWriteBehindFlusher {
+
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final LikedPostIndex likedPostIndex;
+    private final LikeBatchRepository likeBatchRepository;
+    private final PostRepository postRepository;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter coalescedCounter;
+    private final Counter writtenCounter;
+
+    public LikeWriteBehindFlusher(
+            LikeWriteBuffer likeWriteBuffer,
+            LikedPostIndex likedPostIndex,
+            LikeBatchRepository likeBatchRepository,
+            PostRepository postRepository,
+            OutboxService outboxService,
+            ApplicationEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry) {
+        this.likeWriteBuffer = likeWriteBuffer;
+        this.likedPostIndex = likedPostIndex;
+        this.likeBatchRepository = likeBatchRepository;
+        this.postRepository = postRepository;
+        this.outboxService = outboxService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.coalescedCounter = Counter.builder("likes.write-behind.coalesced")
+                .description("Buffered like intents that cancelled out before reaching the database")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("likes.write-behind.written")
+                .description("Like rows inserted or deleted by write-behind flushes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.likes.write-behind.flush-interval-ms:200}")
+    public void flush() {
+        if (likeWriteBuffer.isEnabled()) {
+            flushOnce();
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        if (!likeWriteBuffer.isEnabled()) {
+            return;
+        }
+        // Retry a couple of times so a transient failure does not drop the buffer on shutdown
+        for (int attempt = 0; attempt < 3 && !likeWriteBuffer.isEmpty(); attempt++) {
+            flushOnce();
+        }
+        if (!likeWriteBuffer.isEmpty()) {
+            log.error("Shutting down with unflushed like intents");
+        }
+    }
+
+    private synchronized void flushOnce() {
+        Map<LikeKey, PendingLike> batch = likeWriteBuffer.drain();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            int written = transactionTemplate.execute(status -> write(batch));
+            // Update the index before dropping the overlay, so readers never see the old state
+            batch.forEach((key, pending) -> {
+                if (!pending.isNoOp()) {
+                    likedPostIndex.record(key.userId(), key.postId(), pending.liked());
+                }
+            });
+            likeWriteBuffer.complete(batch);
+            log.debug("Flushed {} like intents ({} rows written)", batch.size(), written);
+        } catch (RuntimeException e) {
+            likeWriteBuffer.restore(batch);
+            log.error("Failed to flush {} like intents, will retry: {}", batch.size(), e.getMessage(), e);
+        }
+    }
+
+    private int write(Map<LikeKey, PendingLike> batch) {
+        List<LikeKey> likes = new ArrayList<>();
+        List<LikeKey> unlikes = new ArrayList<>();
+        batch.forEach((key, pending) -> {
+            if (pending.isNoOp()) {
+                coalescedCounter.increment();
+            } else if (pending.liked()) {
+                likes.add(key);
+            } else {
+                unlikes.add(key);
+            }
+        });
+
+        List<LikeKey> inserted = applied(likes, likes.isEmpty()
+                ? new int[0] : likeBatchRepository.insertLikes(likes, new Timestamp(System.currentTimeMillis())));
+        List<LikeKey> deleted = applied(unlikes, unlikes.isEmpty()
+                ? new int[0] : likeBatchRepository.deleteLikes(unlikes));
+
+        Map<Long, Integer> deltaByPost = new HashMap<>();
+        inserted.forEach(key -> deltaByPost.merge(key.postId(), 1, Integer::sum));
+        deleted.forEach(key -> deltaByPost.merge(key.postId(), -1, Integer::sum));
+        deltaByPost.forEach((postId, delta) -> {
+            if (delta != 0) {
+                postRepository.incrementLikesCount(postId, delta);
+            }
+        });
+
+        Set<Long> touchedPostIds = new HashSet<>();
+        inserted.forEach(key -> touchedPostIds.add(key.postId()));
+        deleted.forEach(key -> touchedPostIds.add(key.postId()));
+        if (touchedPostIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Post> postsById = postRepository.findAllWithAuthorByIdIn(touchedPostIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        outboxService.enqueueAll(OutboxEvent.Type.POST_LIKED, inserted.stream()
+                .map(key -> new PostLikedEvent(key.userId(), key.postId()))
+                .collect(Collectors.toList()));
+
+        Set<Long> likedPostIds = inserted.stream().map(LikeKey::postId).collect(Collectors.toSet());
+        postsById.values().forEach(post -> eventPublisher.publishEvent(PostChangedEvent.of(post,
+                likedPostIds.contains(post.getId()) ? PostChangedEvent.ChangeType.LIKED : PostChangedEvent.ChangeType.UNLIKED)));
+
+        int written = inserted.size() + deleted.size();
+        writtenCounter.increment(written);
+        return written;
+    }
+
+    /**
+     * Rows whose statement changed something. A rewritten batch reports no per-row counts;
+     * those rows are trusted to change, since the buffer only queues intents that differ from
+     * the state it read.
+     */
+    private List<LikeKey> applied(List<LikeKey> keys, int[] counts) {
+        List<LikeKey> applied = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                applied.add(keys.get(i));
+            }
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,265 @@
+package com.learnlink.service;
+
+import com.learnlink.exception.ResourceNotFoundException;
+import com.learnlink.repository.LikeRepository;
+import com.learnlink.repository.PostRepository;
+import com.learnlink.repository.projection.LikeKey;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory buffer of like intents for the write-behind like path
+ * ({@code app.likes.write-behind.enabled}).
+ * Intents are kept per (user, post) in lock-striped maps: repeated toggles only flip the
+ * desired state, so like, unlike, like collapses into a single pending like and like, unlike
+ * into nothing. {@link LikeWriteBehindFlusher} drains the buffer in batches. Until a batch has
+ * committed, its intents stay visible through the read overlay ({@link #pendingLiked},
+ * {@link #pendingDelta}), so counts and "liked by me" flags never go backwards.
+ * Holds no references to other services so read paths can depend on it freely.
+ */
+@Service
+public class LikeWriteBuffer {
+
+    private final LikeRepository likeRepository;
+    private final PostRepository postRepository;
+    private final boolean enabled;
+    private final Stripe[] stripes;
+
+    // Drained intents whose batch has not committed yet
+    private final Map<LikeKey, PendingLike> inFlight = new ConcurrentHashMap<>();
+
+    // Net like count change per post of all buffered and in-flight intents
+    private final Map<Long, Integer> pendingDeltaByPost = new ConcurrentHashMap<>();
+
+    // Bumped on every toggle, so response versions change before the flush
+    private final AtomicLong changeCount = new AtomicLong();
+
+    // Bumped on every drain, so a baseline read from the database concurrently with a flush is re-read
+    private final AtomicLong drainGeneration = new AtomicLong();
+
+    public LikeWriteBuffer(
+            LikeRepository likeRepository,
+            PostRepository postRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.likes.write-behind.enabled:false}") boolean enabled,
+            @Value("${app.likes.write-behind.stripes:16}") int stripeCount) {
+        this.likeRepository = likeRepository;
+        this.postRepository = postRepository;
+        this.enabled = enabled;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+
+        Gauge.builder("likes.write-behind.pending", this, LikeWriteBuffer::pendingCount)
+                .description("Like intents buffered and not yet flushed")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record a like toggle and return the resulting state. Only the first toggle of a
+     * (user, post) within a flush window reads the database.
+     */
+    public boolean toggle(Long userId, Long postId) {
+        return update(userId, postId, null);
+    }
+
+    /**
+     * Record a like or unlike; a no-op when the user's state already matches
+     */
+    public void set(Long userId, Long postId, boolean liked) {
+        update(userId, postId, liked);
+    }
+
+    /**
+     * Flip the state of (user, post), or set it when {@code desired} is given, and return the new state
+     */
+    private boolean update(Long userId, Long postId, Boolean desired) {
+        LikeKey key = new LikeKey(userId, postId);
+        Stripe stripe = stripeFor(key);
+
+        while (true) {
+            long generation = drainGeneration.get();
+
+            stripe.lock.lock();
+            try {
+                PendingLike pending = stripe.entries.get(key);
+                if (pending == null) {
+                    PendingLike flushing = inFlight.get(key);
+                    if (flushing != null) {
+                        pending = new PendingLike(flushing.liked(), flushing.liked());
+                    }
+                }
+                if (pending != null) {
+                    return apply(stripe, key, pending, desired);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+
+            // First touch in this window: read the persisted state outside the stripe lock
+            if (!postRepository.existsById(postId)) {
+                throw new ResourceNotFoundException("Post", "id", postId);
+            }
+            boolean baseline = likeRepository.existsByUserIdAndPostId(userId, postId);
+
+            stripe.lock.lock();
+            try {
+                if (drainGeneration.get() != generation) {
+                    continue; // a flush may have changed the row since it was read
+                }
+                PendingLike pending = stripe.entries.get(key);
+                return apply(stripe, key, pending != null ? pending : new PendingLike(baseline, baseline), desired);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Buffered like state of a user on a post, or null when nothing is pending
+     */
+    public Boolean pendingLiked(Long userId, Long postId) {
+        if (!enabled) {
+            return null;
+        }
+        LikeKey key = new LikeKey(userId, postId);
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            PendingLike pending = stripe.entries.get(key);
+            if (pending != null) {
+                return pending.liked();
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        PendingLike flushing = inFlight.get(key);
+        return flushing != null ? flushing.liked() : null;
+    }
+
+    /**
+     * Net change to a post's persisted like count that is still buffered
+     */
+    public int pendingDelta(Long postId) {
+        return enabled ? pendingDeltaByPost.getOrDefault(postId, 0) : 0;
+    }
+
+    public long changeCount() {
+        return changeCount.get();
+    }
+
+    /**
+     * Move every buffered intent into flight and return them; the caller must then
+     * {@link #complete} or {@link #restore} the batch
+     */
+    Map<LikeKey, PendingLike> drain() {
+        Map<LikeKey, PendingLike> batch = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                inFlight.putAll(stripe.entries);
+                batch.putAll(stripe.entries);
+                stripe.entries.clear();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        drainGeneration.incrementAndGet();
+        return batch;
+    }
+
+    /**
+     * The batch has committed: its intents are now part of the persisted state
+     */
+    void complete(Map<LikeKey, PendingLike> batch) {
+        batch.forEach((key, flushed) -> {
+            adjustDelta(key.postId(), -flushed.netChange());
+            inFlight.remove(key, flushed);
+        });
+    }
+
+    /**
+     * The batch failed: put its intents back in front of anything buffered since
+     */
+    void restore(Map<LikeKey, PendingLike> batch) {
+        batch.forEach((key, flushed) -> {
+            Stripe stripe = stripeFor(key);
+            stripe.lock.lock();
+            try {
+                PendingLike newer = stripe.entries.get(key);
+                stripe.entries.put(key, newer != null ? new PendingLike(flushed.baseline(), newer.liked()) : flushed);
+                inFlight.remove(key, flushed);
+            } finally {
+                stripe.lock.unlock();
+            }
+        });
+    }
+
+    boolean isEmpty() {
+        return pendingCount() == 0 && inFlight.isEmpty();
+    }
+
+    private boolean apply(Stripe stripe, LikeKey key, PendingLike pending, Boolean desired) {
+        boolean liked = desired != null ? desired : !pending.liked();
+        if (liked == pending.liked()) {
+            return liked;
+        }
+        stripe.entries.put(key, new PendingLike(pending.baseline(), liked));
+        adjustDelta(key.postId(), liked ? 1 : -1);
+        changeCount.incrementAndGet();
+        return liked;
+    }
+
+    private void adjustDelta(Long postId, int delta) {
+        if (delta != 0) {
+            pendingDeltaByPost.compute(postId, (id, current) -> {
+                int updated = (current != null ? current : 0) + delta;
+                return updated != 0 ? updated : null;
+            });
+        }
+    }
+
+    private int pendingCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            count += stripe.entries.size();
+        }
+        return count;
+    }
+
+    private Stripe stripeFor(LikeKey key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+
+    /**
+     * Like state of one (user, post): what is persisted and what the user wants now
+     */
+    record PendingLike(boolean baseline, boolean liked) {
+
+        int netChange() {
+            return (liked ? 1 : 0) - (baseline ? 1 : 0);
+        }
+
+        boolean isNoOp() {
+            return liked == baseline;
+        }
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<LikeKey, PendingLike> entries = new HashMap<>();
+    }
+}
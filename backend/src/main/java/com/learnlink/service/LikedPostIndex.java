@@ -0,0 +1,139 @@
+package com.learnlink.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learnlink.repository.LikeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-memory index of the posts each recently active user has liked, used for the
+ * "liked by me" flag. A user's liked post ids are loaded once, with a single id-only query,
+ * into a sorted {@code long[]}; flags for a page are then answered with binary searches.
+ * Entries are weighed by their array size and evicted within {@code app.likes.liked-index.max-bytes},
+ * least recently used first. Users with more than {@code app.likes.liked-index.max-ids-per-user}
+ * likes are not indexed and fall back to the database.
+ */
+@Service
+public class LikedPostIndex {
+
+    // Marker for users whose likes exceed the per-user limit
+    private static final long[] NOT_INDEXED = new long[0];
+
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final LikeRepository likeRepository;
+    private final Cache<Long, long[]> likedPostIdsByUser;
+    private final int maxIdsPerUser;
+
+    public LikedPostIndex(
+            LikeRepository likeRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.likes.liked-index.max-bytes:33554432}") long maxBytes,
+            @Value("${app.likes.liked-index.max-ids-per-user:50000}") int maxIdsPerUser,
+            @Value("${app.likes.liked-index.idle-minutes:30}") long idleMinutes) {
+        this.likeRepository = likeRepository;
+        this.maxIdsPerUser = maxIdsPerUser;
+        this.likedPostIdsByUser = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long userId, long[] postIds) -> ENTRY_OVERHEAD_BYTES + postIds.length * Long.BYTES)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, likedPostIdsByUser, "likedPostIndex");
+    }
+
+    public boolean isLiked(Long userId, Long postId) {
+        long[] postIds = likedPostIdsByUser.get(userId, this::load);
+        if (postIds == NOT_INDEXED) {
+            return likeRepository.existsByUserIdAndPostId(userId, postId);
+        }
+        return Arrays.binarySearch(postIds, postId) >= 0;
+    }
+
+    /**
+     * The subset of the given posts that the user has liked
+     */
+    public Set<Long> likedAmong(Long userId, Collection<Long> postIds) {
+        long[] likedPostIds = likedPostIdsByUser.get(userId, this::load);
+        if (likedPostIds == NOT_INDEXED) {
+            return new HashSet<>(likeRepository.findLikedPostIds(userId, postIds));
+        }
+
+        Set<Long> liked = new HashSet<>();
+        for (Long postId : postIds) {
+            if (Arrays.binarySearch(likedPostIds, postId) >= 0) {
+                liked.add(postId);
+            }
+        }
+        return liked;
+    }
+
+    /**
+     * Apply a like or unlike once the current transaction (if any) commits
+     */
+    public void recordAfterCommit(Long userId, Long postId, boolean liked) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(userId, postId, liked);
+                }
+            });
+        } else {
+            record(userId, postId, liked);
+        }
+    }
+
+    /**
+     * Apply a committed like or unlike to the user's entry, if the user is indexed.
+     * Runs atomically with respect to a concurrent load of the same user.
+     */
+    public void record(Long userId, Long postId, boolean liked) {
+        likedPostIdsByUser.asMap().computeIfPresent(userId, (id, postIds) -> {
+            if (postIds == NOT_INDEXED) {
+                return postIds;
+            }
+            int position = Arrays.binarySearch(postIds, postId);
+            if (liked && position < 0) {
+                if (postIds.length >= maxIdsPerUser) {
+                    return NOT_INDEXED;
+                }
+                int insertAt = -position - 1;
+                long[] updated = new long[postIds.length + 1];
+                System.arraycopy(postIds, 0, updated, 0, insertAt);
+                updated[insertAt] = postId;
+                System.arraycopy(postIds, insertAt, updated, insertAt + 1, postIds.length - insertAt);
+                return updated;
+            }
+            if (!liked && position >= 0) {
+                long[] updated = new long[postIds.length - 1];
+                System.arraycopy(postIds, 0, updated, 0, position);
+                System.arraycopy(postIds, position + 1, updated, position, postIds.length - position - 1);
+                return updated;
+            }
+            return postIds;
+        });
+    }
+
+    private long[] load(Long userId) {
+        List<Long> postIds = likeRepository.findPostIdsByUserId(userId, PageRequest.of(0, maxIdsPerUser + 1));
+        if (postIds.size() > maxIdsPerUser) {
+            return NOT_INDEXED;
+        }
+        return postIds.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,100 @@
+package com.learnlink.service;
+
+import com.learnlink.exception.FileStorageException;
+import com.learnlink.service.FileStorageService.StoredFile;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Streams post attachments to storage concurrently, before any database transaction is opened.
+ * A shared pool of {@code app.file.upload-parallelism} threads bounds how many files are written
+ * at once across all requests. If any file of a batch fails, the files already stored for
+ * that batch are removed again.
+ */
+@Service
+@Slf4j
+public class MediaUploadService {
+
+    private final FileStorageService fileStorageService;
+    private final FileDeletionQueue fileDeletionQueue;
+    private final long maxFileBytes;
+    private final ThreadPoolExecutor uploadExecutor;
+
+    public MediaUploadService(
+            FileStorageService fileStorageService,
+            FileDeletionQueue fileDeletionQueue,
+            @Value("${app.file.upload-parallelism:8}") int parallelism,
+            @Value("${app.file.max-file-size-bytes:52428800}") long maxFileBytes) {
+        this.fileStorageService = fileStorageService;
+        this.fileDeletionQueue = fileDeletionQueue;
+        this.maxFileBytes = maxFileBytes;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.uploadExecutor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "media-upload-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.uploadExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Store all files in parallel and wait for the whole batch; the result keeps the order of the input
+     */
+    public List<StoredFile> storeAll(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            return List.of();
+        }
+
+        List<CompletableFuture<StoredFile>> uploads = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> fileStorageService.storeFile(file, maxFileBytes), uploadExecutor))
+                .collect(Collectors.toList());
+
+        try {
+            CompletableFuture.allOf(uploads.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            discard(uploads.stream()
+                    .filter(upload -> !upload.isCompletedExceptionally())
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList()));
+            throw e.getCause() instanceof RuntimeException cause
+                    ? cause
+                    : new FileStorageException("Could not store attachments", e.getCause());
+        }
+
+        List<StoredFile> stored = new ArrayList<>(uploads.size());
+        uploads.forEach(upload -> stored.add(upload.join()));
+        return stored;
+    }
+
+    /**
+     * Remove files that were stored but will not be referenced, e.g. because the post transaction rolled back
+     */
+    public void discard(List<StoredFile> storedFiles) {
+        if (!storedFiles.isEmpty()) {
+            log.info("Discarding {} stored attachments that were not saved", storedFiles.size());
+            fileDeletionQueue.enqueueAfterCommit(storedFiles.stream()
+                    .map(StoredFile::fileName)
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
+}
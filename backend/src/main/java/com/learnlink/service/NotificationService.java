@@ -1,22 +1,69 @@
 package com.learnlink.service;
 
 import com.learnlink.dto.response.NotificationResponse;
+import com.learnlink.event.NotificationCreatedEvent;
 import com.learnlink.exception.ResourceNotFoundException;
 import com.learnlink.model.Notification;
 import com.learnlink.model.User;
 import com.learnlink.repository.NotificationRepository;
-import lombok.RequiredArgsConstructor;
+import com.learnlink.repository.UserRepository;
+import com.learnlink.repository.projection.UserSummaryView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stores and reads notifications. Activity of the grouped types ({@code app.notifications.group.types})
+ * about the same (recipient, type, entity) is folded into one unread notification while it keeps seeing
+ * activity within {@code app.notifications.group.window-minutes}: the row keeps its id and carries an
+ * actor count and the latest actors, and its message is rendered from those when it is read.
+ */
 @Service
-@RequiredArgsConstructor
 public class NotificationService {
     
     private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean groupingEnabled;
+    private final Set<Notification.NotificationType> groupedTypes;
+    private final int recentActorLimit;
+    private final Duration groupWindow;
+    
+    public NotificationService(
+            NotificationRepository notificationRepository,
+            UserRepository userRepository,
+            UserService userService,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.notifications.group.enabled:true}") boolean groupingEnabled,
+            @Value("${app.notifications.group.types:LIKE,COMMENT}") Set<Notification.NotificationType> groupedTypes,
+            @Value("${app.notifications.group.recent-actors:3}") int recentActorLimit,
+            @Value("${app.notifications.group.window-minutes:60}") long groupWindowMinutes) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.eventPublisher = eventPublisher;
+        this.groupingEnabled = groupingEnabled;
+        this.groupedTypes = groupedTypes;
+        this.recentActorLimit = recentActorLimit;
+        this.groupWindow = Duration.ofMinutes(groupWindowMinutes);
+    }
     
     @Transactional
     public void createNotification(User recipient, User actor, Notification.NotificationType type, 
@@ -31,20 +78,81 @@ public class NotificationService {
                 .isRead(false)
                 .build();
         
-        notificationRepository.save(notification);
+        Notification saved = notificationRepository.save(notification);
+        eventPublisher.publishEvent(new NotificationCreatedEvent(recipient.getId(), mapToNotificationResponse(saved)));
+    }
+    
+    /**
+     * Notify a user that an actor acted on one of their entities, e.g. liked post 42. Activity of the
+     * grouped types is folded into the recipient's unread notification for the entity with one UPDATE,
+     * or stored as a new one. Notifications covered by the read watermark are not joined, so actors
+     * already seen are not counted again.
+     */
+    @Transactional
+    public void recordActivity(Long recipientId, Long actorId, Notification.NotificationType type,
+                               String entityType, Long entityId) {
+        Date now = new Date();
+        if (groupingEnabled && groupedTypes.contains(type)) {
+            Date windowStart = new Date(now.getTime() - groupWindow.toMillis());
+            Date readAt = readWatermark(recipientId);
+            Date since = readAt.after(windowStart) ? readAt : windowStart;
+            if (notificationRepository.foldIntoGroup(recipientId, type.name(), entityType, entityId, actorId,
+                    recentActorLimit, since, now) > 0) {
+                notificationRepository.findGroupUpdatedAt(recipientId, type, entityType, entityId, now).stream()
+                        .findFirst()
+                        .ifPresent(folded -> eventPublisher.publishEvent(
+                                new NotificationCreatedEvent(recipientId, mapToNotificationResponse(folded))));
+                return;
+            }
+        }
+        
+        Notification notification = Notification.builder()
+                .recipient(userRepository.getReferenceById(recipientId))
+                .actor(userRepository.getReferenceById(actorId))
+                .type(type)
+                .entityType(entityType)
+                .entityId(entityId)
+                .recentActorIds(String.valueOf(actorId))
+                .isRead(false)
+                .updatedAt(now)
+                .build();
+        Notification saved = notificationRepository.save(notification);
+        eventPublisher.publishEvent(new NotificationCreatedEvent(recipientId, mapToNotificationResponse(saved)));
+    }
+    
+    /**
+     * The user's notifications with activity at or after the given time, oldest activity first,
+     * for replay to a reconnecting stream
+     */
+    @Transactional(readOnly = true)
+    public List<NotificationResponse> getNotificationsUpdatedSince(Long userId, Date since, int limit) {
+        List<Notification> notifications = notificationRepository
+                .findUpdatedSince(userId, since, PageRequest.of(0, limit));
+        Map<Long, UserSummaryView> actors = findRecentActors(notifications);
+        Date readAt = readWatermark(userId);
+        return notifications.stream()
+                .map(notification -> mapToNotificationResponse(notification, actors, readAt))
+                .collect(Collectors.toList());
+    }
+    
+    public long countUnreadNotifications(Long userId) {
+        return notificationRepository.countUnread(userId, readWatermark(userId));
     }
     
     public Page<NotificationResponse> getNotifications(String currentUserEmail, Boolean unreadOnly, Pageable pageable) {
         User currentUser = userService.getCurrentUser(currentUserEmail);
         
+        Date readAt = readWatermark(currentUser.getId());
+        
         Page<Notification> notifications;
         if (unreadOnly != null && unreadOnly) {
-            notifications = notificationRepository.findByRecipientAndIsReadOrderByCreatedAtDesc(currentUser, false, pageable);
+            notifications = notificationRepository.findUnread(currentUser.getId(), readAt, pageable);
         } else {
-            notifications = notificationRepository.findByRecipientOrderByCreatedAtDesc(currentUser, pageable);
+            notifications = notificationRepository.findByRecipientOrderByUpdatedAtDesc(currentUser, pageable);
         }
         
-        return notifications.map(this::mapToNotificationResponse);
+        Map<Long, UserSummaryView> actors = findRecentActors(notifications.getContent());
+        return notifications.map(notification -> mapToNotificationResponse(notification, actors, readAt));
     }
     
     @Transactional
@@ -64,26 +172,93 @@ public class NotificationService {
         return mapToNotificationResponse(updatedNotification);
     }
     
+    /**
+     * Mark everything the user has been notified of so far as read by moving their read watermark:
+     * one row is updated however many notifications are unread
+     */
     @Transactional
     public void markAllNotificationsAsRead(String currentUserEmail) {
         User currentUser = userService.getCurrentUser(currentUserEmail);
         
-        Page<Notification> unreadNotifications = notificationRepository
-                .findByRecipientAndIsReadOrderByCreatedAtDesc(currentUser, false, Pageable.unpaged());
-        
-        unreadNotifications.forEach(notification -> {
-            notification.setIsRead(true);
-            notificationRepository.save(notification);
-        });
+        userRepository.updateNotificationsReadAt(currentUser.getId(), new Date());
     }
     
     public long countUnreadNotifications(String currentUserEmail) {
         User currentUser = userService.getCurrentUser(currentUserEmail);
         
-        return notificationRepository.countByRecipientAndIsRead(currentUser, false);
+        return countUnreadNotifications(currentUser.getId());
+    }
+    
+    /**
+     * Notifications up to this time are read, whatever their own flag says
+     */
+    private Date readWatermark(Long userId) {
+        Date readAt = userRepository.findNotificationsReadAtById(userId);
+        return readAt != null ? readAt : new Date(0);
     }
     
+    /**
+     * Maps a notification on its own flag only: for notifications just created, or just read
+     */
     private NotificationResponse mapToNotificationResponse(Notification notification) {
+        return mapToNotificationResponse(notification, findRecentActors(List.of(notification)), new Date(0));
+    }
+    
+    /**
+     * The recent actors of all the given notifications, with one query
+     */
+    private Map<Long, UserSummaryView> findRecentActors(Collection<Notification> notifications) {
+        Set<Long> actorIds = new HashSet<>();
+        notifications.forEach(notification -> actorIds.addAll(recentActorIds(notification)));
+        if (actorIds.isEmpty()) {
+            return Map.of();
+        }
+        return userRepository.findSummariesByIdIn(actorIds).stream()
+                .collect(Collectors.toMap(UserSummaryView::getId, Function.identity()));
+    }
+    
+    private static List<Long> recentActorIds(Notification notification) {
+        if (notification.getRecentActorIds() == null || notification.getRecentActorIds().isEmpty()) {
+            // Stored before grouping, or without an actor
+            return notification.getActor() != null ? List.of(notification.getActor().getId()) : List.of();
+        }
+        return Arrays.stream(notification.getRecentActorIds().split(","))
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+    }
+    
+    private static int actorCount(Notification notification) {
+        return notification.getActorCount() != null ? Math.max(notification.getActorCount(), 1) : 1;
+    }
+    
+    /**
+     * The stored message, or for grouped activity "Alice and 41 others liked your post",
+     * built from the current name of the latest actor
+     */
+    private static String renderMessage(Notification notification, Map<Long, UserSummaryView> actors) {
+        if (notification.getMessage() != null) {
+            return notification.getMessage();
+        }
+        List<Long> recentActorIds = recentActorIds(notification);
+        UserSummaryView latest = recentActorIds.isEmpty() ? null : actors.get(recentActorIds.get(0));
+        String name = latest != null ? latest.getName() : "Someone";
+        int others = actorCount(notification) - 1;
+        String who = others <= 0 ? name : name + " and " + others + (others == 1 ? " other" : " others");
+        return who + " " + describeAction(notification.getType(), notification.getEntityType());
+    }
+    
+    private static String describeAction(Notification.NotificationType type, String entityType) {
+        return switch (type) {
+            case LIKE -> "liked your " + entityType;
+            case COMMENT -> "comment".equals(entityType) ? "replied to your comment" : "commented on your " + entityType;
+            case FOLLOW -> "started following you";
+            case MENTION -> "mentioned you";
+            case LEARNING_PLAN_SHARE -> "shared a learning plan with you";
+        };
+    }
+    
+    private NotificationResponse mapToNotificationResponse(Notification notification, Map<Long, UserSummaryView> actors,
+                                                           Date readAt) {
         NotificationResponse.UserSummaryResponse actorResponse = null;
         
         if (notification.getActor() != null) {
@@ -97,12 +272,23 @@ public class NotificationService {
         return NotificationResponse.builder()
                 .id(notification.getId())
                 .actor(actorResponse)
-                .message(notification.getMessage())
+                .message(renderMessage(notification, actors))
                 .type(notification.getType())
-                .isRead(notification.getIsRead())
+                .isRead(Boolean.TRUE.equals(notification.getIsRead()) || !notification.getUpdatedAt().after(readAt))
                 .entityType(notification.getEntityType())
                 .entityId(notification.getEntityId())
                 .createdAt(notification.getCreatedAt())
+                .updatedAt(notification.getUpdatedAt())
+                .actorCount(actorCount(notification))
+                .recentActors(recentActorIds(notification).stream()
+                        .map(actors::get)
+                        .filter(Objects::nonNull)
+                        .map(actor -> NotificationResponse.UserSummaryResponse.builder()
+                                .id(actor.getId())
+                                .name(actor.getName())
+                                .profilePicture(actor.getProfilePicture())
+                                .build())
+                        .collect(Collectors.toList()))
                 .build();
     }
 }
@@ -0,0 +1,100 @@
+package com.learnlink.service;
+
+import com.learnlink.dto.response.NotificationResponse;
+import com.learnlink.event.NotificationCreatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pushes new notifications and the recipient's unread count over server-sent events, replacing
+ * polling of the notification list and count. Every notification event carries the time of the
+ * notification's latest activity (epoch milliseconds) as its SSE id, so a reconnecting client sends it
+ * back as {@code Last-Event-ID} and gets what it missed replayed from the table, including grouped
+ * notifications that took in more actors under their existing id. Replay is inclusive of that time,
+ * so clients update notifications by their id. The per-subscriber queue never drops silently: a client that
+ * falls behind is disconnected and catches up through that replay.
+ */
+@Service
+public class NotificationStreamService {
+
+    private static final String NOTIFICATION_EVENT = "notification";
+    private static final String UNREAD_COUNT_EVENT = "unread-count";
+
+    private final NotificationService notificationService;
+    private final SseHub<Long> hub;
+    private final int replayLimit;
+
+    public NotificationStreamService(
+            NotificationService notificationService,
+            MeterRegistry meterRegistry,
+            @Value("${app.notifications.stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${app.notifications.stream.queue-capacity:32}") int queueCapacity,
+            @Value("${app.notifications.stream.max-connections-per-user:5}") int maxConnectionsPerUser,
+            @Value("${app.notifications.stream.max-connections:20000}") int maxConnections,
+            @Value("${app.notifications.stream.sender-threads:4}") int senderThreads,
+            @Value("${app.notifications.stream.heartbeat-seconds:25}") long heartbeatSeconds,
+            @Value("${app.notifications.stream.replay-limit:100}") int replayLimit,
+            @Value("${app.notifications.stream.send-timeout-ms:5000}") long sendTimeoutMillis) {
+        this.notificationService = notificationService;
+        this.hub = new SseHub<>("notifications", new SseHub.Settings(timeoutMillis, queueCapacity, 0,
+                maxConnectionsPerUser, maxConnections, senderThreads, heartbeatSeconds, sendTimeoutMillis), meterRegistry);
+        this.replayLimit = replayLimit;
+    }
+
+    /**
+     * Open the user's notification stream. It starts with the notifications with activity since
+     * {@code lastEventId} (if given) and the current unread count. Returns null when the user
+     * or the node already has too many open streams.
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        return hub.subscribe(userId, () -> {
+            List<SseHub.Event> initialEvents = new ArrayList<>();
+            if (lastEventId != null) {
+                notificationService.getNotificationsUpdatedSince(userId, new Date(lastEventId), replayLimit)
+                        .forEach(notification -> initialEvents.add(notificationEvent(notification)));
+            }
+            initialEvents.add(unreadCountEvent(notificationService.countUnreadNotifications(userId)));
+            return initialEvents;
+        });
+    }
+
+    /**
+     * Tell the user's open streams the unread count changed, e.g. after notifications were read
+     */
+    public void publishUnreadCount(Long userId) {
+        if (hub.subscriberCount(userId) > 0) {
+            hub.publish(userId, unreadCountEvent(notificationService.countUnreadNotifications(userId)));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationCreated(NotificationCreatedEvent event) {
+        // Only users with an open stream cost a count query
+        if (hub.subscriberCount(event.getRecipientId()) > 0) {
+            hub.publish(event.getRecipientId(), notificationEvent(event.getNotification()));
+            publishUnreadCount(event.getRecipientId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hub.shutdown();
+    }
+
+    private SseHub.Event notificationEvent(NotificationResponse notification) {
+        return new SseHub.Event(String.valueOf(notification.getUpdatedAt().getTime()), NOTIFICATION_EVENT, notification);
+    }
+
+    private SseHub.Event unreadCountEvent(long unreadCount) {
+        return new SseHub.Event(null, UNREAD_COUNT_EVENT, Map.of("unreadCount", unreadCount));
+    }
+}
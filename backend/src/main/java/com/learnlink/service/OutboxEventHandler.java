@@ -0,0 +1,125 @@
+package com.learnlink.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnlink.event.LearningProgressEvent;
+import com.learnlink.event.PostCommentedEvent;
+import com.learnlink.event.PostLikedEvent;
+import com.learnlink.model.Comment;
+import com.learnlink.model.LearningPlan;
+import com.learnlink.model.Notification;
+import com.learnlink.model.Post;
+import com.learnlink.model.User;
+import com.learnlink.model.UserProgress;
+import com.learnlink.repository.CommentRepository;
+import com.learnlink.repository.LearningPlanRepository;
+import com.learnlink.repository.PostRepository;
+import com.learnlink.repository.ResourceRepository;
+import com.learnlink.repository.TopicRepository;
+import com.learnlink.repository.UserProgressRepository;
+import com.learnlink.repository.UserRepository;
+import com.learnlink.repository.projection.OutboxRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Carries out the side effects recorded in the outbox: activity rows, notifications and
+ * propagation of learning progress to posts. Runs inside the worker's transaction, together with
+ * the event's processed marker, so the effects of one event are applied at most once even though
+ * events are delivered at least once. Nothing is handed to an in-memory stage: notifications are
+ * stored and progress is written before the marker commits, so a crash cannot lose them.
+ * Events about rows deleted in the meantime are skipped.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxEventHandler {
+
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final LearningPlanRepository learningPlanRepository;
+    private final TopicRepository topicRepository;
+    private final ResourceRepository resourceRepository;
+    private final UserProgressRepository userProgressRepository;
+    private final UserActivityService userActivityService;
+    private final NotificationService notificationService;
+    private final LearningProgressPropagator learningProgressPropagator;
+
+    public void handle(OutboxRecord record) {
+        switch (record.type()) {
+            case POST_LIKED -> onPostLiked(read(record, PostLikedEvent.class));
+            case POST_COMMENTED -> onPostCommented(read(record, PostCommentedEvent.class));
+            case LEARNING_PROGRESS -> onLearningProgress(read(record, LearningProgressEvent.class));
+        }
+    }
+
+    private void onPostLiked(PostLikedEvent event) {
+        User user = userRepository.findById(event.userId()).orElse(null);
+        Post post = postRepository.findById(event.postId()).orElse(null);
+        if (user == null || post == null) {
+            return;
+        }
+
+        userActivityService.recordPostLike(user, post);
+        if (!post.getAuthor().getId().equals(user.getId())) {
+            notificationService.recordActivity(post.getAuthor().getId(), user.getId(),
+                    Notification.NotificationType.LIKE, "post", post.getId());
+        }
+    }
+
+    private void onPostCommented(PostCommentedEvent event) {
+        Comment comment = commentRepository.findById(event.commentId()).orElse(null);
+        if (comment == null) {
+            return;
+        }
+        User user = comment.getUser();
+        Post post = comment.getPost();
+        Comment parentComment = comment.getParentComment();
+
+        if (parentComment != null) {
+            // Notify the parent comment's author (if not the same user)
+            if (!parentComment.getUser().getId().equals(user.getId())) {
+                notificationService.recordActivity(parentComment.getUser().getId(), user.getId(),
+                        Notification.NotificationType.COMMENT, "comment", parentComment.getId());
+            }
+        } else if (!post.getAuthor().getId().equals(user.getId())) {
+            // Notify the post's author (if not the same user)
+            notificationService.recordActivity(post.getAuthor().getId(), user.getId(),
+                    Notification.NotificationType.COMMENT, "post", post.getId());
+        }
+        userActivityService.recordPostComment(user, post, comment);
+    }
+
+    private void onLearningProgress(LearningProgressEvent event) {
+        User user = userRepository.findById(event.userId()).orElse(null);
+        LearningPlan learningPlan = learningPlanRepository.findById(event.learningPlanId()).orElse(null);
+        if (user == null || learningPlan == null) {
+            return;
+        }
+
+        userActivityService.recordLearningPlanProgress(user, learningPlan, event.progressPercentage());
+        if (event.completedTopicId() != null) {
+            topicRepository.findById(event.completedTopicId()).ifPresent(topic ->
+                    userActivityService.recordTopicCompletion(user, learningPlan, topic));
+        }
+        if (event.completedResourceId() != null) {
+            resourceRepository.findById(event.completedResourceId()).ifPresent(resource ->
+                    userActivityService.recordResourceCompletion(user, learningPlan, resource.getTopic(), resource));
+        }
+
+        // Events of one user may be handled out of order, so posts get the current progress, not the event's
+        Integer progress = userProgressRepository.findByUserIdAndLearningPlanId(user.getId(), learningPlan.getId())
+                .map(UserProgress::getCompletionPercentage)
+                .orElse(event.progressPercentage());
+        learningProgressPropagator.propagateNow(learningPlan.getId(), user.getId(), progress);
+    }
+
+    private <T> T read(OutboxRecord record, Class<T> payloadType) {
+        try {
+            return objectMapper.readValue(record.payload(), payloadType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable " + record.type() + " payload of outbox event " + record.id(), e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.learnlink.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnlink.model.OutboxEvent;
+import com.learnlink.repository.OutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Records side effects of a write in the transactional outbox.
+ * Events are inserted in the caller's transaction, so they exist exactly when the write they
+ * belong to committed; {@link OutboxWorker} carries them out afterwards, off the request thread.
+ * Committing wakes the local workers, so events are usually handled within milliseconds.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(OutboxEvent.Type type, Object payload) {
+        enqueueAll(type, List.of(payload));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(OutboxEvent.Type type, List<?> payloads) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        outboxRepository.insert(type, payloads.stream().map(this::toJson).collect(Collectors.toList()),
+                new Timestamp(System.currentTimeMillis()));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                signal();
+            }
+        });
+    }
+
+    /**
+     * Wait until an event is committed on this instance, or the timeout passes
+     */
+    void awaitWork(long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            workAvailable.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wake every waiting worker
+     */
+    void signal() {
+        lock.lock();
+        try {
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize outbox payload " + payload, e);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.learnlink.service;
+
+import com.learnlink.repository.OutboxRepository;
+import com.learnlink.repository.projection.OutboxRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of {@code app.outbox.workers} threads draining the transactional outbox.
+ * Each worker claims a batch of due events with {@code FOR UPDATE SKIP LOCKED} and a lease of
+ * {@code app.outbox.lease-seconds}, then applies the whole batch in one transaction. If that fails,
+ * the batch is retried one event per transaction, so a single bad event does not hold back the rest;
+ * failed events come back after an exponential backoff, up to {@code app.outbox.max-attempts} times.
+ * Events whose worker died are claimed again once their lease runs out: delivery is at least once,
+ * and {@link OutboxEventHandler} applies each event's effects together with its processed marker.
+ */
+@Service
+@Slf4j
+public class OutboxWorker {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int CLEANUP_CHUNK_SIZE = 1000;
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxService outboxService;
+    private final OutboxEventHandler outboxEventHandler;
+    private final TransactionTemplate transactionTemplate;
+    private final int workerCount;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final long leaseMillis;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long retentionMillis;
+
+    private final ExecutorService workers;
+    private final Counter processedCounter;
+    private final Counter duplicateCounter;
+    private final Counter failedCounter;
+    private final Counter abandonedCounter;
+    private volatile boolean running;
+
+    public OutboxWorker(
+            OutboxRepository outboxRepository,
+            OutboxService outboxService,
+            OutboxEventHandler outboxEventHandler,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.outbox.workers:2}") int workerCount,
+            @Value("${app.outbox.batch-size:100}") int batchSize,
+            @Value("${app.outbox.poll-interval-ms:1000}") long pollIntervalMillis,
+            @Value("${app.outbox.lease-seconds:60}") long leaseSeconds,
+            @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${app.outbox.initial-backoff-ms:1000}") long initialBackoffMillis,
+            @Value("${app.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxRepository = outboxRepository;
+        this.outboxService = outboxService;
+        this.outboxEventHandler = outboxEventHandler;
+        this.transactionTemplate = transactionTemplate;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.leaseMillis = TimeUnit.SECONDS.toMillis(leaseSeconds);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.retentionMillis = TimeUnit.HOURS.toMillis(retentionHours);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.processedCounter = Counter.builder("outbox.events.processed")
+                .description("Outbox events whose side effects were applied")
+                .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("outbox.events.duplicates")
+                .description("Redelivered outbox events that had already been processed")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.events.failed")
+                .description("Failed attempts at processing an outbox event")
+                .register(meterRegistry);
+        this.abandonedCounter = Counter.builder("outbox.events.abandoned")
+                .description("Outbox events left unprocessed after exhausting all attempts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start the workers once the application is ready to serve, so handlers see a fully started context
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::run);
+        }
+    }
+
+    /**
+     * Let the workers finish their current batch; anything left is picked up after restart
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        outboxService.signal();
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Outbox workers did not finish their batches before shutdown");
+        }
+    }
+
+    /**
+     * Delete processed events older than {@code app.outbox.retention-hours}, in chunks
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval-ms:600000}")
+    public void deleteProcessed() {
+        Timestamp before = new Timestamp(System.currentTimeMillis() - retentionMillis);
+        int deleted;
+        do {
+            deleted = outboxRepository.deleteProcessedBefore(before, CLEANUP_CHUNK_SIZE);
+        } while (deleted == CLEANUP_CHUNK_SIZE && running);
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                List<OutboxRecord> batch = claim();
+                if (batch.isEmpty()) {
+                    outboxService.awaitWork(pollIntervalMillis);
+                } else {
+                    process(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Typically the database being unavailable; back off and try again
+                log.error("Outbox worker failed to claim events: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<OutboxRecord> claim() {
+        long now = System.currentTimeMillis();
+        return transactionTemplate.execute(status ->
+                outboxRepository.claim(batchSize, maxAttempts, new Timestamp(now), new Timestamp(now + leaseMillis)));
+    }
+
+    private void process(List<OutboxRecord> batch) {
+        try {
+            int applied = transactionTemplate.execute(status -> {
+                int count = 0;
+                for (OutboxRecord record : batch) {
+                    count += apply(record) ? 1 : 0;
+                }
+                return count;
+            });
+            processedCounter.increment(applied);
+            duplicateCounter.increment(batch.size() - applied);
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            log.warn("Outbox batch of {} events failed, retrying one by one: {}", batch.size(), e.getMessage());
+        }
+
+        for (OutboxRecord record : batch) {
+            try {
+                if (transactionTemplate.execute(status -> apply(record))) {
+                    processedCounter.increment();
+                } else {
+                    duplicateCounter.increment();
+                }
+            } catch (RuntimeException e) {
+                fail(record, e);
+            }
+        }
+    }
+
+    /**
+     * Apply one event in the current transaction; false when it had already been processed
+     */
+    private boolean apply(OutboxRecord record) {
+        if (!outboxRepository.markProcessed(record.id(), new Timestamp(System.currentTimeMillis()))) {
+            return false;
+        }
+        outboxEventHandler.handle(record);
+        return true;
+    }
+
+    private void fail(OutboxRecord record, RuntimeException error) {
+        failedCounter.increment();
+        long backoff = initialBackoffMillis << Math.min(record.attempts() - 1, 16);
+        String message = String.valueOf(error.getMessage());
+        try {
+            outboxRepository.markFailed(record.id(), new Timestamp(System.currentTimeMillis() + backoff),
+                    message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        } catch (RuntimeException e) {
+            // The lease runs out on its own, so the event is retried regardless
+            log.error("Could not record failure of outbox event {}: {}", record.id(), e.getMessage());
+        }
+
+        if (record.attempts() >= maxAttempts) {
+            abandonedCounter.increment();
+            log.error("Giving up on outbox event {} ({}) after {} attempts: {}",
+                    record.id(), record.type(), record.attempts(), message, error);
+        } else {
+            log.warn("Outbox event {} ({}) failed, retrying in {} ms: {}", record.id(), record.type(), backoff, message);
+        }
+    }
+}
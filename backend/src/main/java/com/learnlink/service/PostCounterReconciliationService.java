@@ -0,0 +1,36 @@
+package com.learnlink.service;
+
+import com.learnlink.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Periodically repairs drift in the denormalized likes/comments counters on posts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PostCounterReconciliationService {
+    
+    private final PostRepository postRepository;
+    
+    /**
+     * Recompute both counters in bulk from the likes and comments tables
+     */
+    @Scheduled(cron = "${app.posts.counter-reconciliation-cron:0 0 4 * * *}")
+    @Transactional
+    public void reconcileCounters() {
+        int likesRepaired = postRepository.reconcileLikesCounts();
+        int commentsRepaired = postRepository.reconcileCommentsCounts();
+        
+        if (likesRepaired > 0 || commentsRepaired > 0) {
+            log.warn("Repaired counter drift on posts: {} likes counts, {} comments counts", 
+                    likesRepaired, commentsRepaired);
+        } else {
+            log.info("Post counters are consistent, nothing to repair");
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.learnlink.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnlink.dto.request.PostImportRequest;
+import com.learnlink.dto.response.PostImportProgress;
+import com.learnlink.event.PostChangedEvent;
+import com.learnlink.model.Post;
+import com.learnlink.repository.PostBatchRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of posts from an NDJSON stream.
+ * Records are parsed one at a time and written in chunks of {@code app.posts.import.chunk-size},
+ * each chunk in its own transaction with JDBC batch inserts, so only one chunk is ever held in
+ * memory. Invalid records are skipped and reported; progress is reported after every chunk.
+ */
+@Service
+@Slf4j
+public class PostImportService {
+
+    // Errors reported per chunk; the rest are only counted
+    private static final int MAX_ERRORS_PER_CHUNK = 20;
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final PostBatchRepository postBatchRepository;
+    private final TimelineService timelineService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public PostImportService(
+            ObjectMapper objectMapper,
+            Validator validator,
+            PostBatchRepository postBatchRepository,
+            TimelineService timelineService,
+            ApplicationEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.posts.import.chunk-size:500}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.postBatchRepository = postBatchRepository;
+        this.timelineService = timelineService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Import every record of the stream as a post by the given author, reporting progress to the listener
+     */
+    public void importPosts(InputStream ndjson, Long authorId, Consumer<PostImportProgress> progressListener) throws IOException {
+        ImportState state = new ImportState();
+
+        try (MappingIterator<PostImportRequest> records = objectMapper.readerFor(PostImportRequest.class).readValues(ndjson)) {
+            while (records.hasNextValue()) {
+                PostImportRequest record = records.nextValue();
+                state.recordNumber++;
+
+                Set<ConstraintViolation<PostImportRequest>> violations = validator.validate(record);
+                if (violations.isEmpty()) {
+                    state.chunk.add(record);
+                } else {
+                    state.reject(violations.stream()
+                            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                            .collect(Collectors.joining(", ")));
+                }
+
+                if (state.chunk.size() + state.failed >= chunkSize) {
+                    progressListener.accept(flush(authorId, state, false));
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // Everything before the malformed record is already committed; stop here
+            state.recordNumber++;
+            state.reject("malformed JSON: " + e.getOriginalMessage());
+            progressListener.accept(flush(authorId, state, true));
+            log.warn("Post import by user {} stopped at malformed record {}", authorId, state.recordNumber);
+            return;
+        }
+
+        progressListener.accept(flush(authorId, state, true));
+        log.info("Imported {} posts for user {} ({} failed)", state.totalImported, authorId, state.totalFailed);
+    }
+
+    private PostImportProgress flush(Long authorId, ImportState state, boolean done) {
+        int imported = 0;
+        if (!state.chunk.isEmpty()) {
+            try {
+                imported = writeChunk(authorId, state.chunk);
+            } catch (DataAccessException e) {
+                log.error("Failed to import chunk {} for user {}: {}", state.chunkNumber + 1, authorId, e.getMessage(), e);
+                state.failed += state.chunk.size();
+                state.errors.add("chunk " + (state.chunkNumber + 1) + ": " + e.getMostSpecificCause().getMessage());
+            }
+        }
+
+        state.chunkNumber++;
+        state.totalImported += imported;
+        state.totalFailed += state.failed;
+        PostImportProgress progress = PostImportProgress.builder()
+                .chunk(state.chunkNumber)
+                .imported(imported)
+                .failed(state.failed)
+                .totalImported(state.totalImported)
+                .totalFailed(state.totalFailed)
+                .errors(List.copyOf(state.errors))
+                .done(done)
+                .build();
+
+        state.chunk.clear();
+        state.errors.clear();
+        state.failed = 0;
+        return progress;
+    }
+
+    private int writeChunk(Long authorId, List<PostImportRequest> chunk) {
+        return transactionTemplate.execute(status -> {
+            Date importedAt = new Date();
+            List<Long> postIds = postBatchRepository.insertPosts(authorId, chunk, importedAt);
+            postBatchRepository.insertMedia(postIds, chunk, importedAt);
+            timelineService.onPostsImported(authorId, postIds);
+
+            chunk.stream()
+                    .map(record -> record.getCategory() != null ? record.getCategory() : Post.Category.OTHER)
+                    .distinct()
+                    .forEach(category -> eventPublisher.publishEvent(
+                            new PostChangedEvent(null, authorId, category, PostChangedEvent.ChangeType.CREATED)));
+            return postIds.size();
+        });
+    }
+
+    private class ImportState {
+        private final List<PostImportRequest> chunk = new ArrayList<>(chunkSize);
+        private final List<String> errors = new ArrayList<>();
+        private long recordNumber;
+        private int chunkNumber;
+        private int failed;
+        private long totalImported;
+        private long totalFailed;
+
+        void reject(String reason) {
+            failed++;
+            if (errors.size() < MAX_ERRORS_PER_CHUNK) {
+                errors.add("record " + recordNumber + ": " + reason);
+            }
+        }
+    }
+}
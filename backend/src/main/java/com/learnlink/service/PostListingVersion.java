@@ -0,0 +1,30 @@
+package com.learnlink.service;
+
+import com.learnlink.event.PostChangedEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the post listings, bumped after every committed {@link PostChangedEvent}.
+ * Listing ETags are derived from it, so an unchanged page is recognised without any query.
+ * Seeded from the start time so versions from an earlier run are never reused.
+ * The version is per node: with several instances behind a load balancer, a listing tag issued by
+ * one node is not bumped by changes committed on another, so a revalidated page can be stale
+ * until the request reaches a node that saw the change.
+ */
+@Service
+public class PostListingVersion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long current() {
+        return version.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
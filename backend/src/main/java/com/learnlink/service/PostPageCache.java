@@ -0,0 +1,147 @@
+package com.learnlink.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learnlink.dto.response.PostResponse;
+import com.learnlink.event.PostChangedEvent;
+import com.learnlink.model.Post;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded in-process cache of the user-independent part of the first global and
+ * per-category post pages. Caffeine's W-TinyLFU policy decides what to keep within a
+ * weight budget estimated from the size of each page; the per-user like flag is never
+ * cached and is overlaid by the caller. Entries are invalidated by {@link PostChangedEvent}s.
+ */
+@Service
+@Slf4j
+public class PostPageCache {
+
+    private final Cache<PageKey, CachedPage> cache;
+    private final int maxCachedPages;
+    private final Counter invalidations;
+
+    // Bumped on every invalidation so a page loaded concurrently with a change is not stored stale
+    private final AtomicLong generation = new AtomicLong();
+
+    public PostPageCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.posts.page-cache.max-weight-bytes:16777216}") long maxWeightBytes,
+            @Value("${app.posts.page-cache.max-pages:3}") int maxCachedPages,
+            @Value("${app.posts.page-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxCachedPages = maxCachedPages;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((PageKey key, CachedPage page) -> page.estimatedBytes())
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "postPages");
+        this.invalidations = Counter.builder("posts.page-cache.invalidations")
+                .description("Cached post pages dropped because a post on them changed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Return the shared page for a category (null for the global feed), loading and caching it when missing.
+     * Pages past the first few, or with a client-specified sort, always go to the loader.
+     */
+    public Page<PostResponse> getPage(Post.Category category, Pageable pageable,
+                                      Function<Pageable, Page<PostResponse>> loader) {
+        if (pageable.getPageNumber() >= maxCachedPages || pageable.getSort().isSorted()) {
+            return loader.apply(pageable);
+        }
+
+        PageKey key = new PageKey(category, pageable.getPageNumber(), pageable.getPageSize());
+        CachedPage cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return new PageImpl<>(cached.posts(), pageable, cached.totalElements());
+        }
+
+        long loadedAt = generation.get();
+        Page<PostResponse> page = loader.apply(pageable);
+        if (generation.get() == loadedAt) {
+            cache.put(key, CachedPage.of(page));
+        }
+        return page;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        switch (event.getType()) {
+            // Every later post shifts by one position on the global and category pages
+            case CREATED, DELETED -> invalidate(key -> key.category() == null || key.category() == event.getCategory(),
+                    page -> false);
+            // The post may have moved into another category
+            case UPDATED -> invalidate(key -> key.category() == event.getCategory(),
+                    page -> page.postIds().contains(event.getPostId()));
+            // Propagated progress or a profile change rewrites an unknown set of the author's posts
+            case LEARNING_PROGRESS_UPDATED, AUTHOR_UPDATED -> invalidate(key -> false,
+                    page -> page.authorIds().contains(event.getAuthorId()));
+            default -> invalidate(key -> false, page -> page.postIds().contains(event.getPostId()));
+        }
+    }
+
+    private void invalidate(Predicate<PageKey> byKey, Predicate<CachedPage> byContent) {
+        generation.incrementAndGet();
+        cache.asMap().entrySet().removeIf(entry -> {
+            boolean stale = byKey.test(entry.getKey()) || byContent.test(entry.getValue());
+            if (stale) {
+                invalidations.increment();
+            }
+            return stale;
+        });
+    }
+
+    private record PageKey(Post.Category category, int page, int size) {
+    }
+
+    private record CachedPage(List<PostResponse> posts, long totalElements, Set<Long> postIds, Set<Long> authorIds,
+                              int estimatedBytes) {
+
+        static CachedPage of(Page<PostResponse> page) {
+            List<PostResponse> posts = List.copyOf(page.getContent());
+            Set<Long> postIds = posts.stream()
+                    .map(PostResponse::getId)
+                    .collect(Collectors.toUnmodifiableSet());
+            Set<Long> authorIds = posts.stream()
+                    .filter(post -> post.getAuthor() != null)
+                    .map(post -> post.getAuthor().getId())
+                    .collect(Collectors.toUnmodifiableSet());
+            return new CachedPage(posts, page.getTotalElements(), postIds, authorIds, estimateBytes(posts));
+        }
+
+        // Rough heap footprint: string payloads plus a fixed overhead per post and per attachment
+        private static int estimateBytes(List<PostResponse> posts) {
+            long bytes = 256;
+            for (PostResponse post : posts) {
+                bytes += 512;
+                bytes += 2L * (length(post.getTitle()) + length(post.getContent()));
+                bytes += 256L * (post.getMedia() != null ? post.getMedia().size() : 0);
+            }
+            return (int) Math.min(bytes, Integer.MAX_VALUE);
+        }
+
+        private static int length(String value) {
+            return value != null ? value.length() : 0;
+        }
+    }
+}
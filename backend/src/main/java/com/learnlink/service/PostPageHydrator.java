@@ -0,0 +1,167 @@
+package com.learnlink.service;
+
+import com.learnlink.dto.response.PostResponse;
+import com.learnlink.model.Post;
+import com.learnlink.model.User;
+import com.learnlink.repository.MediaRepository;
+import com.learnlink.repository.projection.MediaView;
+import com.learnlink.repository.projection.PostListingView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maps whole pages of posts to {@link PostResponse}s.
+ * Media are resolved with one grouped query for the entire page instead of once
+ * per post, and the "liked by me" flag from the in-memory {@link LikedPostIndex}; like and comment counts come
+ * from the denormalized counters on the post row.
+ * Mapping is split into a user-independent part and a per-user overlay so the
+ * former can be cached; the overlay also applies like toggles still buffered by
+ * {@link LikeWriteBuffer}.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostPageHydrator {
+
+    private final MediaRepository mediaRepository;
+    private final LikedPostIndex likedPostIndex;
+    private final LikeWriteBuffer likeWriteBuffer;
+
+    public Page<PostResponse> hydrate(Page<Post> page) {
+        return new PageImpl<>(hydrate(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    public Slice<PostResponse> hydrate(Slice<Post> slice) {
+        return new SliceImpl<>(hydrate(slice.getContent()), slice.getPageable(), slice.hasNext());
+    }
+
+    public PostResponse hydrate(Post post) {
+        return hydrate(List.of(post)).get(0);
+    }
+
+    public List<PostResponse> hydrate(List<Post> posts) {
+        return overlayLikedByCurrentUser(hydrateShared(posts));
+    }
+
+    /**
+     * Map posts to responses without any per-user state; the "liked by me" flag is left unset.
+     * The result is identical for every viewer and can be cached.
+     */
+    public List<PostResponse> hydrateShared(List<Post> posts) {
+        return hydrateSharedViews(posts.stream()
+                .map(PostListingView::of)
+                .collect(Collectors.toList()));
+    }
+
+    public Page<PostResponse> hydrateSharedViews(Page<PostListingView> page) {
+        return new PageImpl<>(hydrateSharedViews(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * Map listing projections to shared responses; media is read as projections too, so the listing
+     * path never materializes an entity. Entities go through the same mapping via {@link #hydrateShared(List)}.
+     */
+    public List<PostResponse> hydrateSharedViews(List<PostListingView> posts) {
+        if (posts.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> postIds = posts.stream()
+                .map(PostListingView::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<PostResponse.MediaResponse>> mediaByPost = new HashMap<>();
+        for (MediaView media : mediaRepository.findViewsByPostIds(postIds)) {
+            mediaByPost.computeIfAbsent(media.getPostId(), id -> new ArrayList<>())
+                    .add(PostResponse.MediaResponse.builder()
+                            .id(media.getId())
+                            .fileName(media.getFileName())
+                            .fileType(media.getFileType())
+                            .fileUrl(media.getFileUrl())
+                            .type(media.getType())
+                            .build());
+        }
+
+        List<PostResponse> responses = new ArrayList<>(posts.size());
+        for (PostListingView post : posts) {
+            responses.add(PostResponse.builder()
+                    .id(post.getId())
+                    .title(post.getTitle())
+                    .content(post.getContent())
+                    .category(post.getCategory())
+                    .author(PostResponse.UserSummaryResponse.builder()
+                            .id(post.getAuthorId())
+                            .name(post.getAuthorName())
+                            .profilePicture(post.getAuthorProfilePicture())
+                            .build())
+                    .media(mediaByPost.getOrDefault(post.getId(), new ArrayList<>()))
+                    .learningProgressPercent(post.getLearningProgressPercent())
+                    .learningPlanId(post.getLearningPlanId())
+                    .createdAt(post.getCreatedAt())
+                    .updatedAt(post.getUpdatedAt())
+                    .likesCount(post.getLikesCount() != null ? post.getLikesCount() : 0)
+                    .commentsCount(post.getCommentsCount() != null ? post.getCommentsCount() : 0)
+                    .build());
+        }
+        return responses;
+    }
+
+    public Page<PostResponse> overlayLikedByCurrentUser(Page<PostResponse> page) {
+        return new PageImpl<>(overlayLikedByCurrentUser(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * Copy shared responses with the current user's like flag filled in
+     */
+    public List<PostResponse> overlayLikedByCurrentUser(List<PostResponse> responses) {
+        if (responses.isEmpty()) {
+            return responses;
+        }
+
+        Set<Long> likedPostIds = Collections.emptySet();
+        Long currentUserId = getCurrentUserId();
+        if (currentUserId != null) {
+            List<Long> postIds = responses.stream()
+                    .map(PostResponse::getId)
+                    .collect(Collectors.toList());
+            likedPostIds = likedPostIndex.likedAmong(currentUserId, postIds);
+        }
+
+        List<PostResponse> overlaid = new ArrayList<>(responses.size());
+        for (PostResponse response : responses) {
+            // Like toggles still buffered for write-behind take precedence over the stored state
+            Boolean pendingLiked = currentUserId != null ? likeWriteBuffer.pendingLiked(currentUserId, response.getId()) : null;
+            overlaid.add(response.toBuilder()
+                    .isLikedByCurrentUser(pendingLiked != null ? pendingLiked : likedPostIds.contains(response.getId()))
+                    .likesCount(response.getLikesCount() + likeWriteBuffer.pendingDelta(response.getId()))
+                    .build());
+        }
+        return overlaid;
+    }
+
+    /**
+     * Resolves the id of the authenticated user straight from the principal,
+     * so hydrating a page never needs a user lookup by email.
+     */
+    private Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof User currentUser) {
+            return currentUser.getId();
+        }
+        return null;
+    }
+}
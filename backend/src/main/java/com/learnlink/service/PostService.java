@@ -2,53 +2,74 @@ package com.learnlink.service;
 
 import com.learnlink.dto.request.PostRequest;
 import com.learnlink.dto.response.PostResponse;
+import com.learnlink.event.PostChangedEvent;
 import com.learnlink.exception.ResourceNotFoundException;
+import com.learnlink.model.LearningPlan;
 import com.learnlink.model.Media;
 import com.learnlink.model.Post;
 import com.learnlink.model.User;
+import com.learnlink.repository.CommentRepository;
+import com.learnlink.repository.LearningPlanRepository;
 import com.learnlink.repository.MediaRepository;
 import com.learnlink.repository.PostRepository;
-import com.learnlink.repository.LikeRepository;
+import com.learnlink.service.FileStorageService.StoredFile;
+import com.learnlink.repository.projection.PostVersionView;
+import com.learnlink.util.EntityTag;
+import com.learnlink.util.FeedCursor;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import com.learnlink.repository.UserActivityRepository;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.Query;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @lombok.extern.slf4j.Slf4j
 public class PostService {   
+    private static final int MAX_FEED_PAGE_SIZE = 50;
+    
     private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final LearningPlanRepository learningPlanRepository;
     private final MediaRepository mediaRepository;
-    private final FileStorageService fileStorageService;
+    private final FileDeletionQueue fileDeletionQueue;
+    private final MediaUploadService mediaUploadService;
     private final UserService userService;
-    private final LikeService likeService;
-    private final CommentService commentService;
-    private final LikeRepository likeRepository;
-    private final UserActivityRepository userActivityRepository;
     private final UserActivityService userActivityService;
-    
-    // Inject EntityManager for direct database access when needed
-    @PersistenceContext
-    private EntityManager entityManager;
+    private final PostPageHydrator postPageHydrator;
+    private final TimelineService timelineService;
+    private final PostPageCache postPageCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LearningProgressPropagator learningProgressPropagator;
+    private final TransactionTemplate transactionTemplate;
+    private final LikedPostIndex likedPostIndex;
+    private final PostListingVersion postListingVersion;
+    private final LikeWriteBuffer likeWriteBuffer;
 
-    @Transactional
     public PostResponse createPost(PostRequest postRequest, List<MultipartFile> files, String currentUserEmail) {
+        // Attachments are streamed to storage before the transaction opens, so no connection is held during the upload
+        List<StoredFile> storedFiles = mediaUploadService.storeAll(files);
+        try {
+            return transactionTemplate.execute(status -> savePost(postRequest, storedFiles, currentUserEmail));
+        } catch (RuntimeException e) {
+            mediaUploadService.discard(storedFiles);
+            throw e;
+        }
+    }
+    
+    private PostResponse savePost(PostRequest postRequest, List<StoredFile> storedFiles, String currentUserEmail) {
         User currentUser = userService.getCurrentUser(currentUserEmail);
         
         Post post = Post.builder()
@@ -57,39 +78,21 @@ public class PostService {
                 .category(postRequest.getCategory() != null ? postRequest.getCategory() : Post.Category.OTHER)
                 .author(currentUser)
                 .learningProgressPercent(postRequest.getLearningProgressPercent())
+                .learningPlan(resolveLearningPlan(postRequest.getLearningPlanId(), currentUser))
                 .media(new ArrayList<>())
                 .build();
         
         Post savedPost = postRepository.save(post);
         
-        // Process media files if any
-        if (files != null && !files.isEmpty()) {
-            List<Media> mediaList = new ArrayList<>();
-            
-            for (MultipartFile file : files) {
-                String fileName = fileStorageService.storeFile(file);
-                String fileUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
-                        .path("/api/media/")
-                        .path(fileName)
-                        .toUriString();
-                
-                Media.MediaType mediaType = determineMediaType(file.getContentType());
-                
-                Media media = Media.builder()
-                        .post(savedPost)
-                        .fileName(fileName)
-                        .fileType(file.getContentType())
-                        .fileUrl(fileUrl)
-                        .type(mediaType)
-                        .build();
-                
-                mediaList.add(media);
-            }
-            
+        if (!storedFiles.isEmpty()) {
+            List<Media> mediaList = toMedia(savedPost, storedFiles);
             mediaRepository.saveAll(mediaList);
             savedPost.setMedia(mediaList);
         }
         
+        timelineService.onPostCreated(savedPost);
+        eventPublisher.publishEvent(PostChangedEvent.of(savedPost, PostChangedEvent.ChangeType.CREATED));
+        
         return mapToPostResponse(savedPost);
     }
 
@@ -100,20 +103,85 @@ public class PostService {
         return mapToPostResponse(post);
     }
 
+    /**
+     * ETag of a single post as seen by the given user, computed without mapping the post
+     */
+    @Transactional(readOnly = true)
+    public String getPostEntityTag(Long postId, User currentUser) {
+        PostVersionView version = postRepository.findVersionById(postId)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+        Boolean pendingLiked = currentUser != null ? likeWriteBuffer.pendingLiked(currentUser.getId(), postId) : null;
+        boolean liked = pendingLiked != null
+                ? pendingLiked
+                : currentUser != null && likedPostIndex.isLiked(currentUser.getId(), postId);
+        
+        return EntityTag.weak("post", postId, version.getUpdatedAt() != null ? version.getUpdatedAt().getTime() : 0,
+                (version.getLikesCount() != null ? version.getLikesCount() : 0) + likeWriteBuffer.pendingDelta(postId), version.getCommentsCount(), version.getMediaCount(), version.getLastMediaId(),
+                version.getLearningProgressPercent(), version.getLearningPlanId(), version.getAuthorName(), version.getAuthorProfilePicture(), liked);
+    }
+    
+    /**
+     * ETag of a listing page (global when category is null) as seen by the given user.
+     * Must be read before the page itself, so a change committed in between yields a new tag.
+     */
+    public String getListingEntityTag(Post.Category category, Pageable pageable, User currentUser) {
+        return EntityTag.weak("posts", postListingVersion.current(), likeWriteBuffer.changeCount(), category, pageable.getPageNumber(),
+                pageable.getPageSize(), pageable.getSort(), currentUser != null ? currentUser.getId() : null);
+    }
+
+    @Transactional(readOnly = true)
     public Page<PostResponse> getAllPosts(Pageable pageable, User currentUser) {
-        return postRepository.findAllByOrderByCreatedAtDesc(pageable)
-                .map(this::mapToPostResponse);
+        Page<PostResponse> shared = postPageCache.getPage(null, pageable, page ->
+                postPageHydrator.hydrateSharedViews(postRepository.findListingPage(page)));
+        return postPageHydrator.overlayLikedByCurrentUser(shared);
     }
 
+    @Transactional(readOnly = true)
     public Page<PostResponse> getPostsByUser(Long userId, Pageable pageable, User currentUser) {
         User user = userService.getUserById(userId);
-        return postRepository.findByAuthorOrderByCreatedAtDesc(user, pageable)
-                .map(this::mapToPostResponse);
+        return postPageHydrator.overlayLikedByCurrentUser(
+                postPageHydrator.hydrateSharedViews(postRepository.findListingPageByAuthor(user.getId(), pageable)));
     }
 
+    @Transactional(readOnly = true)
     public Page<PostResponse> getPostsByCategory(Post.Category category, Pageable pageable, User currentUser) {
-        return postRepository.findByCategoryOrderByCreatedAtDesc(category, pageable)
-                .map(this::mapToPostResponse);
+        Page<PostResponse> shared = postPageCache.getPage(category, pageable, page ->
+                postPageHydrator.hydrateSharedViews(postRepository.findListingPageByCategory(category, page)));
+        return postPageHydrator.overlayLikedByCurrentUser(shared);
+    }
+
+    public Slice<PostResponse> getFeed(String cursor, int size) {
+        FeedCursor position = FeedCursor.decode(cursor);
+        Pageable pageable = feedPageable(size);
+        
+        Slice<Post> posts = position == null
+                ? postRepository.findFeed(pageable)
+                : postRepository.findFeedAfter(position.getCreatedAt(), position.getId(), pageable);
+        return postPageHydrator.hydrate(posts);
+    }
+
+    public Slice<PostResponse> getCategoryFeed(Post.Category category, String cursor, int size) {
+        FeedCursor position = FeedCursor.decode(cursor);
+        Pageable pageable = feedPageable(size);
+        
+        Slice<Post> posts = position == null
+                ? postRepository.findCategoryFeed(category, pageable)
+                : postRepository.findCategoryFeedAfter(category, position.getCreatedAt(), position.getId(), pageable);
+        return postPageHydrator.hydrate(posts);
+    }
+
+    public Slice<PostResponse> getUserFeed(Long userId, String cursor, int size) {
+        FeedCursor position = FeedCursor.decode(cursor);
+        Pageable pageable = feedPageable(size);
+        
+        Slice<Post> posts = position == null
+                ? postRepository.findAuthorFeed(userId, pageable)
+                : postRepository.findAuthorFeedAfter(userId, position.getCreatedAt(), position.getId(), pageable);
+        return postPageHydrator.hydrate(posts);
+    }
+
+    private Pageable feedPageable(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE)));
     }
 
     public Page<PostResponse> searchPosts(String query, Pageable pageable, User currentUser) {
@@ -125,11 +193,20 @@ public class PostService {
         Page<Post> posts = postRepository.findByTitleContainingIgnoreCaseOrContentContainingIgnoreCaseOrderByCreatedAtDesc(
             query, query, pageable);
         
-        return posts.map(this::mapToPostResponse);
+        return postPageHydrator.hydrate(posts);
     }
 
-    @Transactional
     public PostResponse updatePost(Long postId, PostRequest postRequest, List<MultipartFile> files, String currentUserEmail) {
+        List<StoredFile> storedFiles = mediaUploadService.storeAll(files);
+        try {
+            return transactionTemplate.execute(status -> savePostUpdate(postId, postRequest, storedFiles, currentUserEmail));
+        } catch (RuntimeException e) {
+            mediaUploadService.discard(storedFiles);
+            throw e;
+        }
+    }
+    
+    private PostResponse savePostUpdate(Long postId, PostRequest postRequest, List<StoredFile> storedFiles, String currentUserEmail) {
         User currentUser = userService.getCurrentUser(currentUserEmail);
         
         Post post = postRepository.findById(postId)
@@ -143,38 +220,20 @@ public class PostService {
         post.setContent(postRequest.getContent());
         post.setCategory(postRequest.getCategory());
         post.setLearningProgressPercent(postRequest.getLearningProgressPercent());
+        post.setLearningPlan(resolveLearningPlan(postRequest.getLearningPlanId(), currentUser));
         
-        // Handle new media files if any
-        if (files != null && !files.isEmpty()) {
-            List<Media> newMediaList = new ArrayList<>();
-            
-            for (MultipartFile file : files) {
-                String fileName = fileStorageService.storeFile(file);
-                String fileUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
-                        .path("/api/media/")
-                        .path(fileName)
-                        .toUriString();
-                
-                Media.MediaType mediaType = determineMediaType(file.getContentType());
-                
-                Media media = Media.builder()
-                        .post(post)
-                        .fileName(fileName)
-                        .fileType(file.getContentType())
-                        .fileUrl(fileUrl)
-                        .type(mediaType)
-                        .build();
-                
-                newMediaList.add(media);
-            }
-            
+        if (!storedFiles.isEmpty()) {
+            List<Media> newMediaList = toMedia(post, storedFiles);
             mediaRepository.saveAll(newMediaList);
             post.getMedia().addAll(newMediaList);
         }
         
         Post updatedPost = postRepository.save(post);
+        eventPublisher.publishEvent(PostChangedEvent.of(updatedPost, PostChangedEvent.ChangeType.UPDATED));
         return mapToPostResponse(updatedPost);
-    }    @Transactional
+    }
+
+    @Transactional
     public void deletePost(Long postId, String currentUserEmail) {
         User currentUser = userService.getCurrentUser(currentUserEmail);
         
@@ -183,89 +242,24 @@ public class PostService {
         
         if (!post.getAuthor().getId().equals(currentUser.getId())) {
             throw new IllegalArgumentException("You are not authorized to delete this post");
-        }        try {            // First, delete all user activities related to this post
-            try {
-                log.info("Deleting user activities for post ID: {}", postId);
-                try {
-                    // First attempt: Use direct EntityManager for complete control
-                    Query query = entityManager.createNativeQuery("DELETE FROM user_activities WHERE post_id = :postId");
-                    query.setParameter("postId", postId);
-                    int deletedCount = query.executeUpdate();
-                    log.info("Successfully deleted {} user activities using EntityManager", deletedCount);
-                } catch (Exception directEx) {
-                    log.warn("Error using direct EntityManager to delete user activities: {}", directEx.getMessage());
-                    
-                    // Second attempt: Try native SQL query through repository
-                    userActivityRepository.deleteByPostIdNative(postId);
-                    log.info("Successfully deleted user activities using native SQL through repository");
-                }
-            } catch (Exception e) {
-                log.warn("Error using native SQL methods to delete user activities: {}", e.getMessage());
-                try {
-                    // Try the JPQL query as a fallback
-                    userActivityRepository.deleteByPostId(postId);
-                    log.info("Successfully deleted user activities using JPQL");
-                } catch (Exception e2) {
-                    log.warn("Error using JPQL to delete user activities: {}", e2.getMessage());
-                    try {
-                        // Fall back to the default Spring Data method
-                        userActivityRepository.deleteByPost(post);
-                        log.info("Successfully deleted user activities using Spring Data method");
-                    } catch (Exception ex) {
-                        log.error("All methods failed to delete user activities for post: {}", ex.getMessage(), ex);
-                        throw new RuntimeException("Error deleting user activities for post: " + ex.getMessage(), ex);
-                    }
-                }
-            }
-            
-            // Second, delete all likes associated with this post
-            try {
-                log.info("Deleting likes for post ID: {}", postId);
-                likeRepository.deleteByPost(post);
-            } catch (Exception e) {
-                log.error("Error deleting likes for post: {}", e.getMessage(), e);
-                throw new RuntimeException("Error deleting likes for post: " + e.getMessage(), e);
-            }
-            
-            // Then, delete all comments associated with this post
-            try {
-                log.info("Deleting comments for post ID: {}", postId);
-                commentService.deleteAllCommentsByPost(post.getId());
-            } catch (Exception e) {
-                log.error("Error deleting comments for post: {}", e.getMessage(), e);
-                throw new RuntimeException("Error deleting comments for post: " + e.getMessage(), e);
-            }
-              // Delete associated media files
-            List<Media> mediaList = new ArrayList<>(post.getMedia());
-            for (Media media : mediaList) {
-                try {
-                    if (media != null && media.getFileName() != null) {
-                        log.info("Deleting media file: {} for post ID: {}", media.getFileName(), postId);
-                        fileStorageService.deleteFile(media.getFileName());
-                    }
-                } catch (Exception e) {
-                    // Log the error but continue with deletion
-                    log.warn("Error deleting media file: {} - {}", media.getFileName(), e.getMessage());
-                }
-            }
-            
-            // Delete all media entries from the database
-            try {
-                log.info("Deleting all media entries for post ID: {}", postId);
-                mediaRepository.deleteByPost(post);
-            } catch (Exception e) {
-                log.error("Error deleting media entries for post: {}", e.getMessage(), e);
-                throw new RuntimeException("Error deleting media entries for post: " + e.getMessage(), e);
-            }
-            
-            // Finally delete the post
-            log.info("Deleting post with ID: {}", postId);
-            postRepository.delete(post);
-            log.info("Post with ID: {} successfully deleted", postId);
-        } catch (Exception e) {
-            log.error("Failed to delete post: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to delete post: " + e.getMessage(), e);
         }
+        
+        // Read what is needed after the row is gone; the cascade clears the persistence context
+        PostChangedEvent deleted = PostChangedEvent.of(post, PostChangedEvent.ChangeType.DELETED);
+        List<String> fileNames = mediaRepository.findFileNamesByPostId(postId);
+        
+        // Remove the post from every home timeline it was fanned out to
+        timelineService.onPostDeleted(postId);
+        
+        // Comments go first, deepest replies before their parents: MySQL stops cascading
+        // through comments.parent_id after 15 levels, well short of the reply depth limit
+        commentRepository.deleteAllByPostId(postId);
+        postRepository.deleteCascadingById(postId);
+        
+        // Stored files are removed in the background once the delete has committed
+        fileDeletionQueue.enqueueAfterCommit(fileNames);
+        eventPublisher.publishEvent(deleted);
+        log.info("Post with ID: {} successfully deleted", postId);
     }
       @Transactional
     public void deleteMedia(Long mediaId, String currentUserEmail) {
@@ -279,128 +273,72 @@ public class PostService {
         }
         
         try {
-            if (media.getFileName() != null) {
-                fileStorageService.deleteFile(media.getFileName());
-            }
-            
             Post post = media.getPost();
             if (post != null && post.getMedia() != null) {
                 post.getMedia().remove(media);
             }
             
             mediaRepository.delete(media);
+            fileDeletionQueue.enqueueAfterCommit(Collections.singletonList(media.getFileName()));
+            eventPublisher.publishEvent(PostChangedEvent.of(post, PostChangedEvent.ChangeType.MEDIA_DELETED));
             log.info("Media with ID: {} successfully deleted", mediaId);
         } catch (Exception e) {
             log.error("Failed to delete media: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to delete media: " + e.getMessage(), e);
         }
     }
-      /**
-     * Updates post learning progress percentage when related learning plan progress changes
+    /**
+     * Updates post learning progress percentage when related learning plan progress changes.
+     * Only posts linked to the plan are touched, with one debounced set-based update.
      * @param learningPlanId The ID of the learning plan
      * @param progressPercentage The new progress percentage
      * @param userId The user ID who owns the learning plan
      */
-  @Transactional
-  public void updatePostsWithLearningPlanProgress(Long learningPlanId, Integer progressPercentage, Long userId) {
-      if (userId == null) {
-          return; // No user, so no posts to update
-      }
-      
-      // Find posts by the user that might be related to this learning plan
-      List<Post> userPosts = postRepository.findByAuthorId(userId);
-      
-      if (userPosts != null && !userPosts.isEmpty()) {
-          boolean postsUpdated = false;
-          for (Post post : userPosts) {
-              // Update all posts by this user with the latest progress percentage
-              // This ensures even posts that were created before progress was made will show progress
-              post.setLearningProgressPercent(progressPercentage);
-              postsUpdated = true;
-          }
-          
-          // Only save if we actually updated any posts
-          if (postsUpdated) {
-              postRepository.saveAll(userPosts);
-              log.info("Updated learning progress to {}% in {} posts for user ID: {}", 
-                      progressPercentage, userPosts.size(), userId);
-          }
-      }
-  }
-    
-    private Media.MediaType determineMediaType(String contentType) {
-        if (contentType == null) {
-            return Media.MediaType.DOCUMENT;
+    public void updatePostsWithLearningPlanProgress(Long learningPlanId, Integer progressPercentage, Long userId) {
+        if (learningPlanId == null || userId == null) {
+            return; // No plan or user, so no posts to update
         }
         
-        if (contentType.startsWith("image/")) {
-            return Media.MediaType.IMAGE;
-        } else if (contentType.startsWith("video/")) {
-            return Media.MediaType.VIDEO;
-        } else if (contentType.startsWith("audio/")) {
-            return Media.MediaType.AUDIO;
-        } else {
-            return Media.MediaType.DOCUMENT;
-        }
+        learningProgressPropagator.submit(learningPlanId, userId, progressPercentage);
     }
     
-    public PostResponse mapToPostResponse(Post post) {
-        // Get the current user's email from SecurityContext
-        String currentUserEmail = null;
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.isAuthenticated() && 
-                !(authentication.getPrincipal() instanceof String)) {
-            try {
-                User currentUser = (User) authentication.getPrincipal();
-                currentUserEmail = currentUser.getEmail();
-            } catch (ClassCastException e) {
-                // Not a User object, probably "anonymousUser"
-            }
+    private List<Media> toMedia(Post post, List<StoredFile> storedFiles) {
+        List<Media> mediaList = new ArrayList<>(storedFiles.size());
+        for (StoredFile storedFile : storedFiles) {
+            String fileUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/media/")
+                    .path(storedFile.fileName())
+                    .toUriString();
+            
+            mediaList.add(Media.builder()
+                    .post(post)
+                    .fileName(storedFile.fileName())
+                    .fileType(storedFile.contentType())
+                    .fileUrl(fileUrl)
+                    .type(Media.MediaType.fromContentType(storedFile.contentType()))
+                    .fileSize(storedFile.size())
+                    .contentHash(storedFile.sha256())
+                    .build());
         }
-
-        // Check if current user has liked this post
-        boolean isLikedByCurrentUser = false;
-        if (currentUserEmail != null) {
-            User currentUser = userService.getUserByEmail(currentUserEmail);
-            isLikedByCurrentUser = likeRepository.existsByUserAndPost(currentUser, post);
+        return mediaList;
+    }
+    
+    private LearningPlan resolveLearningPlan(Long learningPlanId, User currentUser) {
+        if (learningPlanId == null) {
+            return null;
         }
-
-        List<PostResponse.MediaResponse> mediaResponses = post.getMedia().stream()
-                .map(media -> PostResponse.MediaResponse.builder()
-                        .id(media.getId())
-                        .fileName(media.getFileName())
-                        .fileType(media.getFileType())
-                        .fileUrl(media.getFileUrl())
-                        .type(media.getType())
-                        .build())
-                .collect(Collectors.toList());
+        LearningPlan learningPlan = learningPlanRepository.findById(learningPlanId)
+                .orElseThrow(() -> new ResourceNotFoundException("LearningPlan", "id", learningPlanId));
         
-        PostResponse.UserSummaryResponse authorResponse = PostResponse.UserSummaryResponse.builder()
-                .id(post.getAuthor().getId())
-                .name(post.getAuthor().getName())
-                .profilePicture(post.getAuthor().getProfilePicture())
-                .build();
-        
-        // Get likes count
-        long likesCount = likeService.countLikes(post.getId());
-        
-        // Get comments count
-        long commentsCount = commentService.countCommentsByPost(post.getId());
-        
-        return PostResponse.builder()
-                .id(post.getId())
-                .title(post.getTitle())
-                .content(post.getContent())
-                .category(post.getCategory())
-                .author(authorResponse)
-                .media(mediaResponses)
-                .learningProgressPercent(post.getLearningProgressPercent())
-                .createdAt(post.getCreatedAt())
-                .updatedAt(post.getUpdatedAt())
-                .likesCount((int)likesCount)
-                .commentsCount((int)commentsCount)
-                .isLikedByCurrentUser(isLikedByCurrentUser)
-                .build();
+        // A post may only report progress against one of the author's own plans
+        if (!learningPlan.getCreator().getId().equals(currentUser.getId())) {
+            throw new IllegalArgumentException("You are not authorized to link this learning plan");
+        }
+        return learningPlan;
+    }
+    
+    public PostResponse mapToPostResponse(Post post) {
+        return postPageHydrator.hydrate(post);
     }
 
     public Post getPostById(Long postId) {
@@ -0,0 +1,327 @@
+package com.learnlink.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * In-process publish/subscribe over server-sent events, keyed by topic (a post, a user, ...).
+ * Connections are held by async servlet I/O, not by threads: an idle subscriber costs an
+ * {@link SseEmitter} and a small bounded queue. Publishing only enqueues; a shared pool of
+ * sender threads drains each subscriber's queue in order. A subscriber whose queue is full
+ * loses its oldest undelivered event, and one that drops too many before catching up is
+ * disconnected so it reconnects and resynchronizes. A send is a blocking write, so one that takes
+ * longer than {@code sendTimeoutMillis} (a client whose TCP window stalled) is aborted and its
+ * subscriber disconnected, rather than pinning a shared sender thread. Idle subscribers get a
+ * heartbeat comment so proxies keep the connection open and dead clients are detected.
+ *
+ * <p>Not a bean: each feature owns a hub configured for its own stream.
+ */
+@Slf4j
+public class SseHub<K> {
+
+    /**
+     * Seconds a client turned away because a hub is full should wait before reconnecting
+     */
+    public static final int RETRY_AFTER_SECONDS = 10;
+
+    private final String name;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final int maxDroppedEvents;
+    private final int maxSubscribersPerKey;
+    private final int maxSubscribers;
+    private final long sendTimeoutNanos;
+
+    private final Map<K, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService sender;
+    private final ScheduledExecutorService heartbeats;
+    private final Counter droppedEvents;
+    private final Counter slowConsumersDisconnected;
+    private final Counter stalledSends;
+
+    public SseHub(String name, Settings settings, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.timeoutMillis = settings.timeoutMillis();
+        this.queueCapacity = settings.queueCapacity();
+        this.maxDroppedEvents = settings.maxDroppedEvents();
+        this.maxSubscribersPerKey = settings.maxSubscribersPerKey();
+        this.maxSubscribers = settings.maxSubscribers();
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(settings.sendTimeoutMillis());
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(settings.senderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, name + "-sse-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleWithFixedDelay(this::sendHeartbeats,
+                settings.heartbeatSeconds(), settings.heartbeatSeconds(), TimeUnit.SECONDS);
+        long stallCheckMillis = Math.max(settings.sendTimeoutMillis() / 2, 50);
+        heartbeats.scheduleWithFixedDelay(this::abortStalledSends, stallCheckMillis, stallCheckMillis, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("sse.subscribers", subscriberCount, AtomicInteger::get)
+                .tag("stream", name)
+                .description("Open server-sent event connections")
+                .register(meterRegistry);
+        this.droppedEvents = Counter.builder("sse.events.dropped")
+                .tag("stream", name)
+                .description("Events dropped because a subscriber's queue was full")
+                .register(meterRegistry);
+        this.slowConsumersDisconnected = Counter.builder("sse.subscribers.disconnected")
+                .tag("stream", name)
+                .description("Subscribers disconnected for falling too far behind")
+                .register(meterRegistry);
+        this.stalledSends = Counter.builder("sse.sends.stalled")
+                .tag("stream", name)
+                .description("Sends aborted after the send timeout, disconnecting their subscriber")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream on a topic. Returns null when the topic, or the hub as a whole, already has
+     * the maximum number of subscribers.
+     */
+    public SseEmitter subscribe(K key) {
+        return subscribe(key, List::of);
+    }
+
+    /**
+     * Open a stream whose first events are {@code initialEvents} (e.g. a replay of what the client missed),
+     * followed by everything published from now on. The subscriber is registered before the initial
+     * events are loaded, and live events are held back until they have been sent, so nothing published
+     * in between is lost; an event may then be delivered twice, and clients de-duplicate by event id.
+     */
+    public SseEmitter subscribe(K key, Supplier<List<Event>> initialEvents) {
+        // Reserve the slot first, so concurrent subscribes cannot overshoot the cap
+        if (subscriberCount.incrementAndGet() > maxSubscribers && maxSubscribers > 0) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(key, emitter);
+
+        AtomicBoolean added = new AtomicBoolean();
+        subscribers.compute(key, (k, topic) -> {
+            Set<Subscriber> current = topic != null ? topic : ConcurrentHashMap.newKeySet();
+            if (maxSubscribersPerKey <= 0 || current.size() < maxSubscribersPerKey) {
+                added.set(current.add(subscriber));
+            }
+            return current.isEmpty() ? null : current;
+        });
+        if (!added.get()) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        try {
+            subscriber.start(initialEvents.get());
+        } catch (RuntimeException e) {
+            remove(subscriber);
+            throw e;
+        }
+        return emitter;
+    }
+
+    /**
+     * Queue an event to every subscriber of the topic; never blocks on slow clients
+     */
+    public void publish(K key, Event event) {
+        Set<Subscriber> topic = subscribers.get(key);
+        if (topic != null) {
+            topic.forEach(subscriber -> subscriber.enqueue(event));
+        }
+    }
+
+    public int subscriberCount(K key) {
+        Set<Subscriber> topic = subscribers.get(key);
+        return topic != null ? topic.size() : 0;
+    }
+
+    /**
+     * Close every stream; clients reconnect to another instance
+     */
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.values().forEach(topic -> topic.forEach(subscriber -> subscriber.emitter.complete()));
+        sender.shutdown();
+    }
+
+    private void sendHeartbeats() {
+        subscribers.values().forEach(topic -> topic.forEach(subscriber -> {
+            if (subscriber.queue.isEmpty()) {
+                subscriber.enqueue(Event.HEARTBEAT);
+            }
+        }));
+    }
+
+    private void abortStalledSends() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(topic -> topic.forEach(subscriber -> subscriber.abortIfStalled(now)));
+    }
+
+    private void remove(Subscriber subscriber) {
+        AtomicBoolean removed = new AtomicBoolean();
+        subscribers.computeIfPresent(subscriber.key, (key, topic) -> {
+            removed.set(topic.remove(subscriber));
+            return topic.isEmpty() ? null : topic;
+        });
+        if (removed.get()) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private final class Subscriber {
+        private final K key;
+        private final SseEmitter emitter;
+        private final Queue<Event> queue = new ArrayBlockingQueue<>(queueCapacity);
+        // Starts set, so live events only queue up until start() has added the initial events
+        private final AtomicBoolean draining = new AtomicBoolean(true);
+        private final AtomicInteger dropped = new AtomicInteger();
+        private volatile Queue<Event> initial = new ArrayDeque<>();
+        // The sender thread and start of the send in progress; guarded by sendLock, so an abort
+        // can only interrupt the thread while it is still sending to this subscriber
+        private final Object sendLock = new Object();
+        private Thread sendingThread;
+        private long sendStartedAt;
+
+        private Subscriber(K key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+
+        void start(List<Event> initialEvents) {
+            initial = new ArrayDeque<>(initialEvents);
+            sender.execute(this::drain);
+        }
+
+        void enqueue(Event event) {
+            while (!queue.offer(event)) {
+                // Full: the client is not keeping up, so the oldest event goes
+                if (queue.poll() != null) {
+                    droppedEvents.increment();
+                    if (dropped.incrementAndGet() > maxDroppedEvents) {
+                        disconnectSlowConsumer();
+                        return;
+                    }
+                }
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Event event;
+                while ((event = initial.poll()) != null) {
+                    send(event);
+                }
+                while ((event = queue.poll()) != null) {
+                    send(event);
+                }
+                dropped.set(0); // caught up again
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping {} subscriber after failed send: {}", name, e.getMessage());
+                remove(this);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // An event may have been queued after the last poll but before the flag was cleared
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void send(Event event) throws IOException {
+            synchronized (sendLock) {
+                sendingThread = Thread.currentThread();
+                sendStartedAt = System.nanoTime();
+            }
+            try {
+                emitter.send(event.toSse());
+            } finally {
+                synchronized (sendLock) {
+                    sendingThread = null;
+                }
+                // Clear an abort that landed as the send completed, so it cannot hit the thread's next task
+                Thread.interrupted();
+            }
+        }
+
+        void abortIfStalled(long now) {
+            synchronized (sendLock) {
+                if (sendingThread == null || now - sendStartedAt < sendTimeoutNanos) {
+                    return;
+                }
+                stalledSends.increment();
+                queue.clear();
+                remove(this);
+                emitter.completeWithError(new IOException("SSE send timed out"));
+                sendingThread.interrupt();
+                sendingThread = null;
+            }
+            log.info("Disconnected stalled {} subscriber on {}", name, key);
+        }
+
+        private void disconnectSlowConsumer() {
+            slowConsumersDisconnected.increment();
+            queue.clear();
+            remove(this);
+            emitter.complete();
+            log.info("Disconnected slow {} subscriber on {}", name, key);
+        }
+    }
+
+    /**
+     * One event of a stream. Builders are not reusable across emitters, so every subscriber
+     * gets its own, built when the event is sent.
+     */
+    public record Event(String id, String name, Object data) {
+
+        static final Event HEARTBEAT = new Event(null, null, null);
+
+        SseEmitter.SseEventBuilder toSse() {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(name).data(data);
+            return id != null ? builder.id(id) : builder;
+        }
+    }
+
+    /**
+     * Tuning of one hub
+     */
+    public record Settings(long timeoutMillis, int queueCapacity, int maxDroppedEvents, int maxSubscribersPerKey,
+                           int maxSubscribers, int senderThreads, long heartbeatSeconds, long sendTimeoutMillis) {
+    }
+}
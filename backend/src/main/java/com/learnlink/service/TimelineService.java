@@ -0,0 +1,380 @@
+package com.learnlink.service;
+
+import com.learnlink.dto.response.PostResponse;
+import com.learnlink.model.Post;
+import com.learnlink.model.TimelineEntry;
+import com.learnlink.repository.FollowRepository;
+import com.learnlink.repository.PostRepository;
+import com.learnlink.repository.TimelineEntryRepository;
+import com.learnlink.repository.UserRepository;
+import com.learnlink.util.FeedCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Home timeline with hybrid fan-out.
+ * Posts by regular authors are copied into their followers' timeline rows on write,
+ * so reading them is one indexed range scan. Posts by heavy authors (follower count at
+ * or above {@code app.feed.heavy-author-threshold}) are not fanned out; they are
+ * merged in at read time from one keyset cursor over all followed heavy authors. An author who
+ * drops below the threshold has their recent posts copied into followers' timelines before reads
+ * stop merging them.
+ * A user's timeline is built from their follows once, on the first read, and the users table
+ * records that it was; timelines are kept within their cap by a sweep over bounded ranges of users.
+ */
+@Service
+@Slf4j
+public class TimelineService {
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private static final Comparator<FeedItem> NEWEST_FIRST = Comparator
+            .comparing(FeedItem::createdAt).reversed()
+            .thenComparing(Comparator.comparing(FeedItem::postId).reversed());
+
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final PostRepository postRepository;
+    private final FollowRepository followRepository;
+    private final PostPageHydrator postPageHydrator;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int timelineCap;
+    private final int followBackfillSize;
+    private final long heavyAuthorThreshold;
+    private final int trimChunkUsers;
+
+    private final Timer mergeTimer;
+    private final DistributionSummary mergeSources;
+    private final DistributionSummary fanOutRows;
+    private final Counter fanOutSkipped;
+
+    // Authors whose posts are merged at read time instead of being fanned out
+    private volatile Set<Long> heavyAuthorIds = Set.of();
+
+    public TimelineService(
+            TimelineEntryRepository timelineEntryRepository,
+            PostRepository postRepository,
+            FollowRepository followRepository,
+            PostPageHydrator postPageHydrator,
+            UserRepository userRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.feed.timeline-cap:800}") int timelineCap,
+            @Value("${app.feed.follow-backfill-size:50}") int followBackfillSize,
+            @Value("${app.feed.heavy-author-threshold:10000}") long heavyAuthorThreshold,
+            @Value("${app.feed.timeline-trim-chunk-users:1000}") int trimChunkUsers) {
+        this.timelineEntryRepository = timelineEntryRepository;
+        this.postRepository = postRepository;
+        this.followRepository = followRepository;
+        this.postPageHydrator = postPageHydrator;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.timelineCap = timelineCap;
+        this.followBackfillSize = followBackfillSize;
+        this.heavyAuthorThreshold = heavyAuthorThreshold;
+        this.trimChunkUsers = trimChunkUsers;
+
+        this.mergeTimer = Timer.builder("feed.home.merge")
+                .description("Time spent merging heavy-author posts into a home timeline page")
+                .register(meterRegistry);
+        this.mergeSources = DistributionSummary.builder("feed.home.merge.sources")
+                .description("Followed heavy authors merged per home timeline page")
+                .register(meterRegistry);
+        this.fanOutRows = DistributionSummary.builder("feed.fanout.rows")
+                .description("Timeline rows written per fanned-out post")
+                .register(meterRegistry);
+        this.fanOutSkipped = Counter.builder("feed.fanout.skipped")
+                .description("Posts by heavy authors that were not fanned out")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Push a newly created post into its author's timeline, and into all followers'
+     * timelines unless the author is heavy
+     */
+    @Transactional
+    public void onPostCreated(Post post) {
+        Long authorId = post.getAuthor().getId();
+
+        timelineEntryRepository.insertEntry(authorId, post.getId(), authorId, post.getCreatedAt());
+
+        if (followRepository.countByFollowing(post.getAuthor()) >= heavyAuthorThreshold) {
+            markHeavy(authorId);
+            fanOutSkipped.increment();
+            log.debug("Skipped fan-out of post {} by heavy author {}", post.getId(), authorId);
+            return;
+        }
+
+        int delivered = timelineEntryRepository.fanOutToFollowers(post.getId(), authorId, post.getCreatedAt());
+        fanOutRows.record(delivered);
+        log.debug("Fanned out post {} to {} follower timelines", post.getId(), delivered);
+    }
+
+    /**
+     * Push a batch of imported posts by one author, with the same heavy-author rule as single posts
+     */
+    @Transactional
+    public void onPostsImported(Long authorId, Collection<Long> postIds) {
+        if (heavyAuthorIds.contains(authorId)
+                || followRepository.countByFollowing(userRepository.getReferenceById(authorId)) >= heavyAuthorThreshold) {
+            markHeavy(authorId);
+            timelineEntryRepository.insertOwnEntries(postIds);
+            fanOutSkipped.increment(postIds.size());
+            return;
+        }
+        fanOutRows.record(timelineEntryRepository.fanOutPosts(authorId, postIds));
+    }
+    
+    /**
+     * Remove a deleted post from every timeline it was pushed to
+     */
+    @Transactional
+    public void onPostDeleted(Long postId) {
+        timelineEntryRepository.deleteByPostId(postId);
+    }
+
+    /**
+     * Backfill the recent posts of a newly followed author
+     */
+    @Transactional
+    public void onFollow(Long followerId, Long authorId) {
+        if (!heavyAuthorIds.contains(authorId)) {
+            timelineEntryRepository.backfillFromAuthor(followerId, authorId, followBackfillSize);
+            timelineEntryRepository.trimTimeline(followerId, timelineCap);
+        }
+    }
+
+    /**
+     * Remove an unfollowed author's posts from the follower's timeline
+     */
+    @Transactional
+    public void onUnfollow(Long followerId, Long authorId) {
+        timelineEntryRepository.deleteByUserIdAndAuthorId(followerId, authorId);
+    }
+
+    /**
+     * Read one page of a user's home timeline, newest first
+     */
+    @Transactional
+    public Slice<PostResponse> getHomeTimeline(Long userId, String cursor, int size) {
+        FeedCursor position = FeedCursor.decode(cursor);
+        Pageable pageable = PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+
+        if (position == null) {
+            materializeOnce(userId);
+        }
+        Slice<TimelineEntry> entries = readTimeline(userId, position, pageable);
+
+        List<FeedItem> timelineItems = entries.getContent().stream()
+                .map(entry -> new FeedItem(entry.getCreatedAt(), entry.getPostId(), null))
+                .collect(Collectors.toList());
+        List<List<FeedItem>> sources = new ArrayList<>();
+        sources.add(timelineItems);
+        boolean hasNext = entries.hasNext();
+
+        Set<Long> heavyAuthors = heavyAuthorIds;
+        List<Long> followedHeavyAuthors = heavyAuthors.isEmpty()
+                ? List.of()
+                : followRepository.findFollowedAmong(userId, heavyAuthors);
+
+        List<FeedItem> page;
+        if (followedHeavyAuthors.isEmpty()) {
+            page = timelineItems;
+        } else {
+            Timer.Sample sample = Timer.start();
+            Slice<Post> recent = readAuthorsPosts(followedHeavyAuthors, position, pageable);
+            sources.add(recent.getContent().stream()
+                    .map(post -> new FeedItem(post.getCreatedAt(), post.getId(), post))
+                    .collect(Collectors.toList()));
+            hasNext |= recent.hasNext();
+            MergeResult merged = mergeNewestFirst(sources, pageable.getPageSize());
+            page = merged.items();
+            hasNext |= merged.truncated();
+            sample.stop(mergeTimer);
+            mergeSources.record(followedHeavyAuthors.size());
+        }
+
+        return new SliceImpl<>(postPageHydrator.hydrate(loadPosts(page)), pageable, hasNext);
+    }
+
+    /**
+     * Re-classify heavy authors from the current follower counts
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.feed.heavy-author-refresh-interval-ms:300000}",
+               initialDelayString = "${app.feed.heavy-author-refresh-interval-ms:300000}")
+    public void refreshHeavyAuthors() {
+        Set<Long> current = new HashSet<>(followRepository.findUserIdsWithFollowersAtLeast(heavyAuthorThreshold));
+        for (Long authorId : heavyAuthorIds) {
+            if (!current.contains(authorId) && !backfillDemoted(authorId)) {
+                // Keep merging the author's posts at read time and retry on the next refresh
+                current.add(authorId);
+            }
+        }
+        heavyAuthorIds = Set.copyOf(current);
+        log.debug("Classified {} heavy authors at threshold {}", heavyAuthorIds.size(), heavyAuthorThreshold);
+    }
+
+    /**
+     * Keep every timeline within its configured cap. Users are swept in id ranges of
+     * {@code app.feed.timeline-trim-chunk-users}, each range in its own short transaction,
+     * and only timelines found over the cap are trimmed, one user at a time.
+     */
+    @Scheduled(fixedDelayString = "${app.feed.timeline-trim-interval-ms:600000}")
+    public void trimTimelines() {
+        long maxUserId = timelineEntryRepository.findMaxUserId();
+        int removed = 0;
+        for (long from = 0; from <= maxUserId; from += trimChunkUsers) {
+            long fromUserId = from;
+            removed += transactionTemplate.execute(status -> {
+                int trimmed = 0;
+                for (Long userId : timelineEntryRepository.findUserIdsOverCap(fromUserId, fromUserId + trimChunkUsers, timelineCap)) {
+                    trimmed += timelineEntryRepository.trimTimeline(userId, timelineCap);
+                }
+                return trimmed;
+            });
+        }
+        if (removed > 0) {
+            log.info("Trimmed {} timeline entries beyond the cap of {}", removed, timelineCap);
+        }
+    }
+
+    /**
+     * Build the timeline from the user's follows the first time it is read. Users who followed
+     * people before fan-out existed, or whose timeline was never written to, start without rows;
+     * the marker on the user row makes sure this happens exactly once, even if the result is empty.
+     */
+    private void materializeOnce(Long userId) {
+        if (userRepository.findTimelineMaterializedAtById(userId) == null
+                && userRepository.markTimelineMaterialized(userId, new Date()) > 0) {
+            timelineEntryRepository.rebuildTimeline(userId, timelineCap);
+            timelineEntryRepository.trimTimeline(userId, timelineCap);
+        }
+    }
+
+    /**
+     * Posts an author made while heavy were never fanned out; copy the most recent of them into the
+     * followers' timelines (as many as a new follow gets) before reads stop merging them in
+     */
+    private boolean backfillDemoted(Long authorId) {
+        try {
+            int delivered = transactionTemplate.execute(status ->
+                    timelineEntryRepository.backfillToFollowers(authorId, followBackfillSize));
+            log.info("Author {} is no longer heavy; backfilled {} timeline entries", authorId, delivered);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to backfill timelines of demoted author {}: {}", authorId, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private synchronized void markHeavy(Long authorId) {
+        if (!heavyAuthorIds.contains(authorId)) {
+            Set<Long> updated = new HashSet<>(heavyAuthorIds);
+            updated.add(authorId);
+            heavyAuthorIds = Set.copyOf(updated);
+        }
+    }
+
+    private Slice<TimelineEntry> readTimeline(Long userId, FeedCursor position, Pageable pageable) {
+        return position == null
+                ? timelineEntryRepository.findTimeline(userId, pageable)
+                : timelineEntryRepository.findTimelineAfter(userId, position.getCreatedAt(), position.getId(), pageable);
+    }
+
+    private Slice<Post> readAuthorsPosts(Collection<Long> authorIds, FeedCursor position, Pageable pageable) {
+        return position == null
+                ? postRepository.findAuthorsFeed(authorIds, pageable)
+                : postRepository.findAuthorsFeedAfter(authorIds, position.getCreatedAt(), position.getId(), pageable);
+    }
+
+    /**
+     * K-way merge of sources that are each sorted newest first, dropping duplicate posts
+     * (a post fanned out before its author turned heavy appears in both the timeline and the author cursor)
+     */
+    private MergeResult mergeNewestFirst(List<List<FeedItem>> sources, int limit) {
+        PriorityQueue<SourceHead> heads = new PriorityQueue<>(
+                Comparator.comparing(SourceHead::current, NEWEST_FIRST));
+        for (List<FeedItem> source : sources) {
+            Iterator<FeedItem> iterator = source.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new SourceHead(iterator.next(), iterator));
+            }
+        }
+
+        List<FeedItem> merged = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+        while (!heads.isEmpty()) {
+            SourceHead head = heads.poll();
+            FeedItem item = head.current();
+            if (seen.add(item.postId())) {
+                if (merged.size() == limit) {
+                    return new MergeResult(merged, true);
+                }
+                merged.add(item);
+            }
+            if (head.rest().hasNext()) {
+                heads.add(new SourceHead(head.rest().next(), head.rest()));
+            }
+        }
+        return new MergeResult(merged, false);
+    }
+
+    /**
+     * Resolve merged items to posts, loading only those that came from timeline rows
+     */
+    private List<Post> loadPosts(List<FeedItem> items) {
+        List<Long> missingIds = items.stream()
+                .filter(item -> item.post() == null)
+                .map(FeedItem::postId)
+                .collect(Collectors.toList());
+
+        Map<Long, Post> postsById = new HashMap<>();
+        if (!missingIds.isEmpty()) {
+            postRepository.findAllWithAuthorByIdIn(missingIds)
+                    .forEach(post -> postsById.put(post.getId(), post));
+        }
+
+        return items.stream()
+                .map(item -> item.post() != null ? item.post() : postsById.get(item.postId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private record FeedItem(Date createdAt, Long postId, Post post) {
+    }
+
+    private record SourceHead(FeedItem current, Iterator<FeedItem> rest) {
+    }
+
+    private record MergeResult(List<FeedItem> items, boolean truncated) {
+    }
+}
@@ -0,0 +1,220 @@
+package com.learnlink.service;
+
+import com.learnlink.dto.response.PostResponse;
+import com.learnlink.event.PostChangedEvent;
+import com.learnlink.model.Post;
+import com.learnlink.repository.PostRepository;
+import com.learnlink.repository.projection.PostEngagementView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Incrementally maintained "trending" ranking with exponential time decay.
+ * Engagement events add weight to a per-post score that halves every
+ * {@code app.trending.half-life-hours}. Scores use forward decay: each event is
+ * weighted by 2^((t - landmark) / halfLife), so a single add keeps the ranking correct
+ * without touching other posts, and the landmark is moved forward periodically to keep
+ * the numbers bounded. A scheduled job snapshots the top-K posts overall and per category.
+ */
+@Service
+@Slf4j
+public class TrendingService {
+
+    private static final double LIKE_WEIGHT = 1.0;
+    private static final double COMMENT_WEIGHT = 2.0;
+    private static final double VIEW_WEIGHT = 0.1;
+
+    // Decayed scores below this are dropped from memory during snapshots
+    private static final double PRUNE_THRESHOLD = 0.01;
+
+    // Move the landmark before forward-decay weights grow past 2^32
+    private static final double MAX_LANDMARK_HALF_LIVES = 32;
+
+    private final PostRepository postRepository;
+    private final PostPageHydrator postPageHydrator;
+    private final double halfLifeMillis;
+    private final int topK;
+    private final int warmupDays;
+
+    private final Map<Long, PostScore> scores = new ConcurrentHashMap<>();
+
+    // Score updates share the read lock; moving the landmark rescales every score under the write lock
+    private final ReadWriteLock landmarkLock = new ReentrantReadWriteLock();
+    private volatile long landmark = System.currentTimeMillis();
+
+    private volatile List<Long> trendingPostIds = List.of();
+    private volatile Map<Post.Category, List<Long>> trendingPostIdsByCategory = Map.of();
+
+    public TrendingService(
+            PostRepository postRepository,
+            PostPageHydrator postPageHydrator,
+            @Value("${app.trending.half-life-hours:6}") double halfLifeHours,
+            @Value("${app.trending.top-k:50}") int topK,
+            @Value("${app.trending.warmup-days:7}") int warmupDays) {
+        this.postRepository = postRepository;
+        this.postPageHydrator = postPageHydrator;
+        this.halfLifeMillis = halfLifeHours * TimeUnit.HOURS.toMillis(1);
+        this.topK = topK;
+        this.warmupDays = warmupDays;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        switch (event.getType()) {
+            case LIKED -> record(event.getPostId(), event.getCategory(), LIKE_WEIGHT, System.currentTimeMillis());
+            case UNLIKED -> record(event.getPostId(), event.getCategory(), -LIKE_WEIGHT, System.currentTimeMillis());
+            case COMMENTED -> record(event.getPostId(), event.getCategory(), COMMENT_WEIGHT, System.currentTimeMillis());
+            case UPDATED -> scores.computeIfPresent(event.getPostId(), (id, score) -> score.withCategory(event.getCategory()));
+            case DELETED -> scores.remove(event.getPostId());
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Count a view of a post towards its trending score
+     */
+    public void recordView(Long postId, Post.Category category) {
+        record(postId, category, VIEW_WEIGHT, System.currentTimeMillis());
+    }
+
+    /**
+     * Seed scores from recent posts' counters so the ranking is useful right after a restart
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        Date since = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(warmupDays));
+        List<PostEngagementView> recent = postRepository.findEngagementSince(since);
+        for (PostEngagementView post : recent) {
+            double weight = LIKE_WEIGHT * post.getLikesCount() + COMMENT_WEIGHT * post.getCommentsCount();
+            if (weight > 0) {
+                record(post.getId(), post.getCategory(), weight, post.getCreatedAt().getTime());
+            }
+        }
+        snapshot();
+        log.info("Seeded trending scores from {} recent posts", recent.size());
+    }
+
+    /**
+     * Rebuild the top-K lists from the live scores
+     */
+    @Scheduled(fixedDelayString = "${app.trending.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        long now = System.currentTimeMillis();
+        if ((now - landmark) / halfLifeMillis > MAX_LANDMARK_HALF_LIVES) {
+            moveLandmark(now);
+        }
+
+        double currentFactor = Math.pow(2, -(now - landmark) / halfLifeMillis);
+        Comparator<Map.Entry<Long, Double>> byScore = Map.Entry.comparingByValue();
+        PriorityQueue<Map.Entry<Long, Double>> overall = new PriorityQueue<>(byScore);
+        Map<Post.Category, PriorityQueue<Map.Entry<Long, Double>>> byCategory = new EnumMap<>(Post.Category.class);
+
+        scores.forEach((postId, score) -> {
+            double current = score.value() * currentFactor;
+            if (current < PRUNE_THRESHOLD) {
+                scores.remove(postId, score);
+                return;
+            }
+            Map.Entry<Long, Double> entry = Map.entry(postId, current);
+            offer(overall, entry);
+            if (score.category() != null) {
+                offer(byCategory.computeIfAbsent(score.category(), category -> new PriorityQueue<>(byScore)), entry);
+            }
+        });
+
+        trendingPostIds = drainDescending(overall);
+        Map<Post.Category, List<Long>> snapshot = new EnumMap<>(Post.Category.class);
+        byCategory.forEach((category, queue) -> snapshot.put(category, drainDescending(queue)));
+        trendingPostIdsByCategory = snapshot;
+    }
+
+    /**
+     * Top trending posts, optionally within one category, from the latest snapshot
+     */
+    @Transactional(readOnly = true)
+    public List<PostResponse> getTrendingPosts(Post.Category category, int limit) {
+        List<Long> ranked = category == null
+                ? trendingPostIds
+                : trendingPostIdsByCategory.getOrDefault(category, List.of());
+        List<Long> postIds = ranked.subList(0, Math.min(Math.max(limit, 0), ranked.size()));
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Post> postsById = postRepository.findAllWithAuthorByIdIn(postIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        List<Post> posts = postIds.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return postPageHydrator.hydrate(posts);
+    }
+
+    private void record(Long postId, Post.Category category, double weight, long eventTime) {
+        landmarkLock.readLock().lock();
+        try {
+            double forwardDecayed = weight * Math.pow(2, (eventTime - landmark) / halfLifeMillis);
+            scores.compute(postId, (id, score) -> score == null
+                    ? new PostScore(Math.max(forwardDecayed, 0), category)
+                    : new PostScore(Math.max(score.value() + forwardDecayed, 0), category != null ? category : score.category()));
+        } finally {
+            landmarkLock.readLock().unlock();
+        }
+    }
+
+    private void moveLandmark(long now) {
+        landmarkLock.writeLock().lock();
+        try {
+            double rescale = Math.pow(2, -(now - landmark) / halfLifeMillis);
+            scores.replaceAll((postId, score) -> new PostScore(score.value() * rescale, score.category()));
+            landmark = now;
+        } finally {
+            landmarkLock.writeLock().unlock();
+        }
+    }
+
+    private void offer(PriorityQueue<Map.Entry<Long, Double>> queue, Map.Entry<Long, Double> entry) {
+        queue.offer(entry);
+        if (queue.size() > topK) {
+            queue.poll();
+        }
+    }
+
+    private List<Long> drainDescending(PriorityQueue<Map.Entry<Long, Double>> queue) {
+        List<Long> postIds = new ArrayList<>(queue.size());
+        while (!queue.isEmpty()) {
+            postIds.add(0, queue.poll().getKey());
+        }
+        return List.copyOf(postIds);
+    }
+
+    private record PostScore(double value, Post.Category category) {
+
+        PostScore withCategory(Post.Category newCategory) {
+            return new PostScore(value, newCategory);
+        }
+    }
+}
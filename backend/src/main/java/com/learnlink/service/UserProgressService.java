@@ -1,6 +1,7 @@
 package com.learnlink.service;
 
 import com.learnlink.dto.response.LearningPlanResponse;
+import com.learnlink.event.LearningProgressEvent;
 import com.learnlink.exception.ResourceNotFoundException;
 import com.learnlink.model.*;
 import com.learnlink.repository.LearningPlanRepository;
@@ -26,8 +27,7 @@ public class UserProgressService {
     private final ResourceRepository resourceRepository;
     private final UserService userService;
     private final LearningPlanService learningPlanService;
-    private final PostService postService;
-    private final UserActivityService userActivityService;
+    private final OutboxService outboxService;
     
     // Use constructor injection with @Lazy for learningPlanService to break circular dependency
     public UserProgressService(
@@ -37,16 +37,14 @@ public class UserProgressService {
             ResourceRepository resourceRepository,
             UserService userService,
             @Lazy LearningPlanService learningPlanService,
-            @Lazy PostService postService,
-            UserActivityService userActivityService) {
+            OutboxService outboxService) {
         this.userProgressRepository = userProgressRepository;
         this.learningPlanRepository = learningPlanRepository;
         this.topicRepository = topicRepository;
         this.resourceRepository = resourceRepository;
         this.userService = userService;
         this.learningPlanService = learningPlanService;
-        this.postService = postService;
-        this.userActivityService = userActivityService;
+        this.outboxService = outboxService;
     }
     
     /**
@@ -167,29 +165,15 @@ public class UserProgressService {
         userProgress.calculateCompletionPercentage();
         userProgressRepository.save(userProgress);
         
-        // Update posts associated with this user to reflect the new progress percentage
+        // Progress activities and the update of linked posts are recorded in the outbox
         if (userProgress.getUser() != null) {
-            postService.updatePostsWithLearningPlanProgress(
-                learningPlan.getId(), 
-                userProgress.getCompletionPercentage(), 
-                userProgress.getUser().getId()
-            );
-            
-            // Record learning progress activity
-            userActivityService.recordLearningPlanProgress(
-                userProgress.getUser(),
-                learningPlan,
-                userProgress.getCompletionPercentage()
-            );
-            
-            // If the status is COMPLETED, record topic completion activity
-            if (status == Topic.CompletionStatus.COMPLETED) {
-                userActivityService.recordTopicCompletion(
-                    userProgress.getUser(),
-                    learningPlan,
-                    topic
-                );
-            }
+            outboxService.enqueue(OutboxEvent.Type.LEARNING_PROGRESS, new LearningProgressEvent(
+                userProgress.getUser().getId(),
+                learningPlan.getId(),
+                userProgress.getCompletionPercentage(),
+                status == Topic.CompletionStatus.COMPLETED ? topic.getId() : null,
+                null
+            ));
         }
         
         // Return the updated learning plan with user progress
@@ -262,30 +246,16 @@ public class UserProgressService {
         // Check if all resources in the topic are completed or not
         // and update the topic status accordingly
         updateTopicStatusBasedOnResources(userProgress, topic);
-          // Update posts associated with this user to reflect the new progress percentage
+        
+        // Progress activities and the update of linked posts are recorded in the outbox
         if (userProgress.getUser() != null) {
-            postService.updatePostsWithLearningPlanProgress(
-                learningPlan.getId(), 
-                userProgress.getCompletionPercentage(), 
-                userProgress.getUser().getId()
-            );
-            
-            // Record learning progress activity
-            userActivityService.recordLearningPlanProgress(
-                userProgress.getUser(),
-                learningPlan,
-                userProgress.getCompletionPercentage()
-            );
-            
-            // If the resource is completed, record resource completion activity
-            if (isCompleted) {
-                userActivityService.recordResourceCompletion(
-                    userProgress.getUser(),
-                    learningPlan,
-                    topic,
-                    resource
-                );
-            }
+            outboxService.enqueue(OutboxEvent.Type.LEARNING_PROGRESS, new LearningProgressEvent(
+                userProgress.getUser().getId(),
+                learningPlan.getId(),
+                userProgress.getCompletionPercentage(),
+                null,
+                isCompleted ? resource.getId() : null
+            ));
         }
         
         // Return the updated learning plan with user progress
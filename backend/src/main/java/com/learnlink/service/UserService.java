@@ -2,12 +2,14 @@ package com.learnlink.service;
 
 import com.learnlink.dto.response.UserProfileResponse;
 import com.learnlink.dto.response.UserSummaryDTO;
+import com.learnlink.event.PostChangedEvent;
 import com.learnlink.exception.ResourceNotFoundException;
 import com.learnlink.model.Follow;
 import com.learnlink.model.User;
 import com.learnlink.repository.FollowRepository;
 import com.learnlink.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -19,6 +21,8 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final FollowRepository followRepository;
+    private final TimelineService timelineService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public UserProfileResponse getUserProfile(Long userId, User currentUser) {
         User user = userRepository.findById(userId)
@@ -70,7 +74,10 @@ public class UserService {
             currentUser.setProfilePicture(userDetails.getProfilePicture());
         }
         
-        return userRepository.save(currentUser);
+        User saved = userRepository.save(currentUser);
+        // Author name and picture are part of every post response
+        eventPublisher.publishEvent(PostChangedEvent.ofAuthor(saved.getId(), PostChangedEvent.ChangeType.AUTHOR_UPDATED));
+        return saved;
     }
     
     @Transactional
@@ -82,7 +89,9 @@ public class UserService {
         }
         
         currentUser.setProfilePicture(profilePictureUrl);
-        return userRepository.save(currentUser);
+        User saved = userRepository.save(currentUser);
+        eventPublisher.publishEvent(PostChangedEvent.ofAuthor(saved.getId(), PostChangedEvent.ChangeType.AUTHOR_UPDATED));
+        return saved;
     }
     
     @Transactional
@@ -106,6 +115,7 @@ public class UserService {
                 .build();
         
         followRepository.save(follow);
+        timelineService.onFollow(currentUser.getId(), userToFollow.getId());
     }
     
     @Transactional
@@ -118,6 +128,7 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Follow", "relationship", userId));
         
         followRepository.delete(follow);
+        timelineService.onUnfollow(currentUser.getId(), userToUnfollow.getId());
     }
     
     public boolean checkIfUserIsFollowing(Long userId, String currentUserEmail) {
@@ -0,0 +1,25 @@
+package com.learnlink.util;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Weak ETags built from the version components of a response (timestamps, counters,
+ * per-user flags) rather than from its bytes, so they can be checked before the response
+ * is built. The components are hashed so ids and counters are not exposed.
+ */
+public final class EntityTag {
+
+    private EntityTag() {
+    }
+
+    public static String weak(Object... versionParts) {
+        String joined = Arrays.stream(versionParts)
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+        return "W/\"" + DigestUtils.md5DigestAsHex(joined.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,56 @@
+package com.learnlink.util;
+
+import com.learnlink.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque keyset cursor for feeds ordered by (createdAt DESC, id DESC).
+ * The position is the last row a client has seen, encoded as URL-safe base64
+ * so clients cannot rely on its format.
+ */
+public final class FeedCursor {
+
+    private final Date createdAt;
+    private final Long id;
+
+    private FeedCursor(Date createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public static String encode(Date createdAt, Long id) {
+        String raw = createdAt.getTime() + "," + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor received from a client, or return null when none was sent
+     */
+    public static FeedCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(',');
+            return new FeedCursor(
+                    new Date(Long.parseLong(raw.substring(0, separator))),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new BadRequestException("Invalid feed cursor", ex);
+        }
+    }
+}
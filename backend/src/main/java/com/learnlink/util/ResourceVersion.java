@@ -0,0 +1,7 @@
+package com.learnlink.util;
+
+/**
+ * Validators for a conditional GET: an ETag and a Last-Modified time in epoch millis
+ */
+public record ResourceVersion(String etag, long lastModified) {
+}
@@ -0,0 +1,13 @@
+-- Fan-out-on-write home timelines: one row per (timeline owner, post)
+CREATE TABLE IF NOT EXISTS timeline_entries (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    post_id BIGINT NOT NULL,
+    author_id BIGINT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    CONSTRAINT uk_timeline_user_post UNIQUE (user_id, post_id)
+);
+
+-- Range scans for one user's timeline, newest first
+CREATE INDEX idx_timeline_user_created_post ON timeline_entries (user_id, created_at, post_id);
+CREATE INDEX idx_timeline_post ON timeline_entries (post_id);
@@ -0,0 +1,35 @@
+-- Let a single DELETE of a post row remove its whole comment tree.
+-- V1.8 made comments, likes, media and user_activities cascade from posts; replies and
+-- the activities that reference a comment still blocked the cascade.
+-- MySQL has no DROP FOREIGN KEY IF EXISTS, so the existing constraint on each column
+-- (named FK_... by hand or generated by Hibernate) is looked up in information_schema first.
+
+-- 1. Replies cascade from their parent comment
+SET @fk = (SELECT CONSTRAINT_NAME FROM information_schema.KEY_COLUMN_USAGE
+           WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'comments'
+             AND COLUMN_NAME = 'parent_id' AND REFERENCED_TABLE_NAME = 'comments' LIMIT 1);
+SET @ddl = IF(@fk IS NULL, 'DO 0', CONCAT('ALTER TABLE comments DROP FOREIGN KEY ', @fk));
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+ALTER TABLE comments
+ADD CONSTRAINT FK_COMMENT_PARENT
+FOREIGN KEY (parent_id)
+REFERENCES comments (id)
+ON DELETE CASCADE;
+
+-- 2. Comment activities cascade from the comment
+SET @fk = (SELECT CONSTRAINT_NAME FROM information_schema.KEY_COLUMN_USAGE
+           WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'user_activities'
+             AND COLUMN_NAME = 'comment_id' AND REFERENCED_TABLE_NAME = 'comments' LIMIT 1);
+SET @ddl = IF(@fk IS NULL, 'DO 0', CONCAT('ALTER TABLE user_activities DROP FOREIGN KEY ', @fk));
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+ALTER TABLE user_activities
+ADD CONSTRAINT FK_COMMENT_USER_ACTIVITY
+FOREIGN KEY (comment_id)
+REFERENCES comments (id)
+ON DELETE CASCADE;
@@ -0,0 +1,12 @@
+-- Posts can report on one learning plan; progress is propagated only to linked posts
+ALTER TABLE posts
+ADD COLUMN learning_plan_id BIGINT NULL;
+
+ALTER TABLE posts
+ADD CONSTRAINT FK_POST_LEARNING_PLAN
+FOREIGN KEY (learning_plan_id)
+REFERENCES learning_plans (id)
+ON DELETE SET NULL;
+
+-- Serves the set-based progress update: WHERE learning_plan_id = ? AND user_id = ?
+CREATE INDEX idx_posts_learning_plan_user ON posts (learning_plan_id, user_id);
@@ -0,0 +1,4 @@
+-- Size and SHA-256 of each attachment, measured while it is streamed to storage
+ALTER TABLE media
+ADD COLUMN file_size BIGINT NULL,
+ADD COLUMN content_hash VARCHAR(64) NULL;
@@ -0,0 +1,3 @@
+-- Keyset index for listing the likers of a post, newest first
+
+CREATE INDEX idx_likes_post_created_id ON likes (post_id, created_at, id);
@@ -0,0 +1,5 @@
+-- Indexes for loading comment threads: root comments of a post, newest first,
+-- and the first replies of many parents at once, oldest first
+
+CREATE INDEX idx_comments_post_root_created ON comments (post_id, parent_id, created_at);
+CREATE INDEX idx_comments_parent_created_id ON comments (parent_id, created_at, id);
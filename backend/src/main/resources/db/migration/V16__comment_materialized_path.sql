@@ -0,0 +1,26 @@
+-- Materialized path and depth for comment threads.
+-- A path lists the ids from the root comment down to the comment itself, each zero-padded
+-- to 10 digits and followed by '/', so ordering by path is depth-first display order and
+-- a subtree is a prefix range on idx_comments_path.
+
+ALTER TABLE comments
+ADD COLUMN path VARCHAR(760) CHARACTER SET ascii NULL,
+ADD COLUMN depth INT NOT NULL DEFAULT 0;
+
+-- Backfill existing threads top-down
+UPDATE comments c
+JOIN (
+    WITH RECURSIVE thread (id, path, depth) AS (
+        SELECT id, CAST(CONCAT(LPAD(id, 10, '0'), '/') AS CHAR(760) CHARACTER SET ascii), 0
+        FROM comments
+        WHERE parent_id IS NULL
+        UNION ALL
+        SELECT child.id, CONCAT(thread.path, LPAD(child.id, 10, '0'), '/'), thread.depth + 1
+        FROM comments child
+        JOIN thread ON child.parent_id = thread.id
+    )
+    SELECT id, path, depth FROM thread
+) computed ON computed.id = c.id
+SET c.path = computed.path, c.depth = computed.depth;
+
+CREATE INDEX idx_comments_path ON comments (path);
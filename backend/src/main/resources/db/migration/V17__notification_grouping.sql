@@ -0,0 +1,10 @@
+-- Grouped notifications: one row per (recipient, type, entity) while it is unread,
+-- carrying the number of actors and the latest of them
+
+ALTER TABLE notifications
+    ADD COLUMN actor_count INT NOT NULL DEFAULT 1,
+    ADD COLUMN recent_actor_ids VARCHAR(255);
+
+UPDATE notifications SET recent_actor_ids = CAST(actor_id AS CHAR) WHERE actor_id IS NOT NULL;
+
+CREATE INDEX idx_notifications_group ON notifications (user_id, type, entity_type, entity_id, is_read);
@@ -0,0 +1,7 @@
+-- Mark-all-read moves a per-user watermark instead of updating every unread row:
+-- a notification is unread when is_read is false and it is newer than the watermark
+
+ALTER TABLE users ADD COLUMN notifications_read_at DATETIME(6);
+
+CREATE INDEX idx_notifications_recipient_created ON notifications (user_id, created_at);
+CREATE INDEX idx_notifications_unread ON notifications (user_id, is_read, created_at);
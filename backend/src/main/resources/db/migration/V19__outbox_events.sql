@@ -0,0 +1,15 @@
+-- Transactional outbox: side effects of likes, comments and learning progress are recorded
+-- in the writing transaction and carried out by background workers
+
+CREATE TABLE outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    type VARCHAR(64) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    available_at DATETIME(6) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    processed_at DATETIME(6),
+    last_error VARCHAR(1000)
+);
+
+CREATE INDEX idx_outbox_pending ON outbox_events (processed_at, available_at);
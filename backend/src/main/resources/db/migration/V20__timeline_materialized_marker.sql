@@ -0,0 +1,4 @@
+-- Home timelines are rebuilt from follows once per user; this records that it happened,
+-- so an empty timeline is no longer mistaken for one that was never built
+
+ALTER TABLE users ADD COLUMN timeline_materialized_at DATETIME(6);
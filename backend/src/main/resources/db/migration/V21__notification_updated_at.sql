@@ -0,0 +1,12 @@
+-- Grouped notifications keep their id and creation time when more actors join them;
+-- updated_at carries the latest activity, for ordering, unread checks and stream replay
+
+ALTER TABLE notifications ADD COLUMN updated_at DATETIME(6);
+
+UPDATE notifications SET updated_at = created_at;
+
+DROP INDEX idx_notifications_recipient_created ON notifications;
+DROP INDEX idx_notifications_unread ON notifications;
+
+CREATE INDEX idx_notifications_recipient_updated ON notifications (user_id, updated_at);
+CREATE INDEX idx_notifications_unread ON notifications (user_id, is_read, updated_at);
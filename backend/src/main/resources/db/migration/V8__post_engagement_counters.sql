@@ -0,0 +1,16 @@
+-- Denormalized like and comment counters on posts
+
+-- 1. Add the counter columns
+ALTER TABLE posts
+ADD COLUMN likes_count INT NOT NULL DEFAULT 0,
+ADD COLUMN comments_count INT NOT NULL DEFAULT 0;
+
+-- 2. Backfill likes counts from the likes table
+UPDATE posts p
+JOIN (SELECT post_id, COUNT(*) AS total FROM likes GROUP BY post_id) l ON l.post_id = p.id
+SET p.likes_count = l.total;
+
+-- 3. Backfill comments counts from the comments table
+UPDATE posts p
+JOIN (SELECT post_id, COUNT(*) AS total FROM comments GROUP BY post_id) c ON c.post_id = p.id
+SET p.comments_count = c.total;
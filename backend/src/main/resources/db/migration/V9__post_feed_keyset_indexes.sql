@@ -0,0 +1,5 @@
+-- Composite indexes backing the keyset (createdAt, id) post feeds
+
+CREATE INDEX idx_posts_created_id ON posts (created_at, id);
+CREATE INDEX idx_posts_category_created_id ON posts (category, created_at, id);
+CREATE INDEX idx_posts_user_created_id ON posts (user_id, created_at, id);
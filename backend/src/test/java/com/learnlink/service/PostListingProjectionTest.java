@@ -0,0 +1,160 @@
+package com.learnlink.service;
+
+import com.learnlink.dto.response.PostResponse;
+import com.learnlink.model.Media;
+import com.learnlink.model.Post;
+import com.learnlink.model.User;
+import com.learnlink.repository.PostRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares listing reads through {@link com.learnlink.repository.projection.PostListingView} with reads
+ * through loaded entities: both must map to the same responses, and only the entity path may populate
+ * the persistence context. Also logs the time of each path over repeated reads.
+ */
+@Slf4j
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({PostPageHydrator.class, LikedPostIndex.class, LikeWriteBuffer.class, PostListingProjectionTest.Config.class})
+class PostListingProjectionTest {
+
+    private static final int POSTS = 60;
+    private static final int PAGE_SIZE = 25;
+    private static final int ROUNDS = 20;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostPageHydrator postPageHydrator;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<User> authors = List.of(user("author1"), user("author2"), user("author3"));
+        for (int i = 0; i < POSTS; i++) {
+            Post post = entityManager.persist(Post.builder()
+                    .author(authors.get(i % authors.size()))
+                    .title("Post " + i)
+                    .content("Content " + i)
+                    .category(Post.Category.PROGRAMMING)
+                    .learningProgressPercent(i % 101)
+                    .media(new ArrayList<>())
+                    .build());
+            entityManager.persist(Media.builder()
+                    .post(post)
+                    .fileName("file-" + i + ".png")
+                    .fileType("image/png")
+                    .type(Media.MediaType.IMAGE)
+                    .build());
+        }
+        entityManager.flush();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void projectionAndEntityReadsMapToTheSameResponses() {
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE);
+
+        entityManager.clear();
+        List<PostResponse> fromViews = postPageHydrator.hydrateSharedViews(postRepository.findListingPage(pageable)).getContent();
+        entityManager.clear();
+        List<PostResponse> fromEntities = postPageHydrator.hydrateShared(postRepository.findFeed(pageable).getContent());
+
+        assertThat(fromViews).hasSize(PAGE_SIZE);
+        assertThat(fromViews).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(fromEntities);
+    }
+
+    @Test
+    void projectionReadsLoadNoEntities() {
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE);
+
+        long viewEntities = countLoadedEntities(() -> postPageHydrator.hydrateSharedViews(postRepository.findListingPage(pageable)));
+        long entityEntities = countLoadedEntities(() -> postPageHydrator.hydrateShared(postRepository.findFeed(pageable).getContent()));
+
+        assertThat(viewEntities).isZero();
+        // The page's posts and their authors
+        assertThat(entityEntities).isGreaterThanOrEqualTo(PAGE_SIZE);
+    }
+
+    @Test
+    void logsProjectionAndEntityReadTimes() {
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE);
+        Supplier<?> views = () -> postPageHydrator.hydrateSharedViews(postRepository.findListingPage(pageable));
+        Supplier<?> entities = () -> postPageHydrator.hydrateShared(postRepository.findFeed(pageable).getContent());
+
+        // Warm up both paths before measuring
+        time(views, 5);
+        time(entities, 5);
+        long viewNanos = time(views, ROUNDS);
+        long entityNanos = time(entities, ROUNDS);
+
+        log.info("Listing page of {} over {} rounds: projection {} us/page, entities {} us/page",
+                PAGE_SIZE, ROUNDS, viewNanos / ROUNDS / 1000, entityNanos / ROUNDS / 1000);
+        assertThat(viewNanos).isPositive();
+        assertThat(entityNanos).isPositive();
+    }
+
+    private long countLoadedEntities(Supplier<?> pageLoad) {
+        entityManager.clear();
+        statistics.clear();
+        pageLoad.get();
+        return statistics.getEntityLoadCount();
+    }
+
+    private long time(Supplier<?> pageLoad, int rounds) {
+        long total = 0;
+        for (int i = 0; i < rounds; i++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            pageLoad.get();
+            total += System.nanoTime() - start;
+        }
+        return total;
+    }
+
+    private User user(String name) {
+        return entityManager.persist(User.builder()
+                .name(name)
+                .email(name + "@example.com")
+                .roles(new HashSet<>())
+                .build());
+    }
+}
@@ -0,0 +1,166 @@
+package com.learnlink.service;
+
+import com.learnlink.dto.response.PostResponse;
+import com.learnlink.model.Like;
+import com.learnlink.model.Media;
+import com.learnlink.model.Post;
+import com.learnlink.model.User;
+import com.learnlink.repository.PostRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of statements needed to map a page of posts: it must not grow with the page size.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({PostPageHydrator.class, LikedPostIndex.class, LikeWriteBuffer.class, PostPageHydratorQueryCountTest.Config.class})
+class PostPageHydratorQueryCountTest {
+
+    private static final int POSTS = 30;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostPageHydrator postPageHydrator;
+
+    private final List<User> viewers = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<User> authors = List.of(user("author1"), user("author2"), user("author3"));
+        for (int i = 0; i < 4; i++) {
+            viewers.add(user("viewer" + i));
+        }
+
+        for (int i = 0; i < POSTS; i++) {
+            Post post = entityManager.persist(Post.builder()
+                    .author(authors.get(i % authors.size()))
+                    .title("Post " + i)
+                    .content("Content " + i)
+                    .category(Post.Category.PROGRAMMING)
+                    .media(new ArrayList<>())
+                    .build());
+            for (int m = 0; m < 2; m++) {
+                entityManager.persist(Media.builder()
+                        .post(post)
+                        .fileName("file-" + i + "-" + m + ".png")
+                        .fileType("image/png")
+                        .type(Media.MediaType.IMAGE)
+                        .build());
+            }
+            for (User viewer : viewers) {
+                if (i % 2 == 0) {
+                    entityManager.persist(Like.builder().user(viewer).post(post).build());
+                }
+            }
+        }
+        entityManager.flush();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void feedPageUsesSameNumberOfStatementsWhateverItsSize() {
+        long small = countStatements(viewers.get(0), () -> {
+            Slice<PostResponse> page = postPageHydrator.hydrate(postRepository.findFeed(PageRequest.of(0, 5)));
+            assertThat(page.getContent()).hasSize(5);
+            return page;
+        });
+        long large = countStatements(viewers.get(1), () -> {
+            Slice<PostResponse> page = postPageHydrator.hydrate(postRepository.findFeed(PageRequest.of(0, 25)));
+            assertThat(page.getContent()).hasSize(25);
+            assertThat(page.getContent()).allSatisfy(post -> {
+                assertThat(post.getAuthor().getName()).isNotNull();
+                assertThat(post.getMedia()).hasSize(2);
+            });
+            return page;
+        });
+
+        // Page query, media of the page, liked post ids of the viewer
+        assertThat(small).isEqualTo(3);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void listingPageUsesSameNumberOfStatementsWhateverItsSize() {
+        long small = countStatements(viewers.get(2), () -> {
+            Page<PostResponse> page = postPageHydrator.overlayLikedByCurrentUser(
+                    postPageHydrator.hydrateSharedViews(postRepository.findListingPage(PageRequest.of(0, 5))));
+            assertThat(page.getContent()).hasSize(5);
+            return page;
+        });
+        long large = countStatements(viewers.get(3), () -> {
+            Page<PostResponse> page = postPageHydrator.overlayLikedByCurrentUser(
+                    postPageHydrator.hydrateSharedViews(postRepository.findListingPage(PageRequest.of(0, 25))));
+            assertThat(page.getContent()).hasSize(25);
+            assertThat(page.getContent()).filteredOn(PostResponse::getIsLikedByCurrentUser).isNotEmpty();
+            return page;
+        });
+
+        // Page query, count query, media of the page, liked post ids of the viewer
+        assertThat(small).isEqualTo(4);
+        assertThat(large).isEqualTo(small);
+    }
+
+    private long countStatements(User viewer, Supplier<?> pageLoad) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(viewer, null, viewer.getAuthorities()));
+        entityManager.clear();
+        statistics.clear();
+        pageLoad.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User user(String name) {
+        return entityManager.persist(User.builder()
+                .name(name)
+                .email(name + "@example.com")
+                .roles(new HashSet<>())
+                .build());
+    }
+}